@@ -0,0 +1,111 @@
+import com.demo.entity.TimeOrderedUuid;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Inserts N rows into a fresh H2 file database with the same todos schema and URL
+ * options as the apps, keyed either by UUID.randomUUID() or TimeOrderedUuid.next().
+ * Prints one CSV line: mode,rows,seconds,rows_per_sec,last_10pct_rows_per_sec,file_bytes
+ *
+ * Usage: java -cp h2.jar:classes UuidInsertBenchmark <random|v7> <rows> <work_dir>
+ */
+public class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+    private static final int COMMIT_EVERY = 500;
+
+    public static void main(String[] args) throws Exception {
+        String mode = args[0];
+        int rows = Integer.parseInt(args[1]);
+        Path dir = Path.of(args[2], mode);
+        Supplier<UUID> ids = switch (mode) {
+            case "random" -> UUID::randomUUID;
+            case "v7" -> TimeOrderedUuid::next;
+            default -> throw new IllegalArgumentException("mode must be random or v7: " + mode);
+        };
+
+        deleteRecursively(dir);
+        Files.createDirectories(dir);
+        String url = "jdbc:h2:file:" + dir.resolve("todo-db").toAbsolutePath()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+
+        long elapsed;
+        long tailElapsed;
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute("CREATE TABLE todos (id UUID PRIMARY KEY, title VARCHAR(120) NOT NULL, "
+                        + "description VARCHAR(1000), completed BOOLEAN NOT NULL, due_date DATE, "
+                        + "created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL, "
+                        + "updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL, version BIGINT NOT NULL)");
+                ddl.execute("CREATE INDEX idx_todos_updated_at_id ON todos (updated_at DESC, id DESC)");
+                ddl.execute("CREATE INDEX idx_todos_completed_updated_at_id "
+                        + "ON todos (completed, updated_at DESC, id DESC)");
+                ddl.execute("CREATE INDEX idx_todos_completed_updated_at_id_asc "
+                        + "ON todos (completed, updated_at, id)");
+            }
+            connection.setAutoCommit(false);
+
+            int tailStart = rows - rows / 10;
+            long tailStartedAt = 0;
+            long start = System.nanoTime();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO todos (id, title, description, completed, due_date, created_at, updated_at, version) "
+                            + "VALUES (?, ?, ?, ?, NULL, ?, ?, 0)")) {
+                for (int i = 0; i < rows; i++) {
+                    if (i == tailStart) {
+                        tailStartedAt = System.nanoTime();
+                    }
+                    Timestamp now = Timestamp.from(Instant.now());
+                    insert.setObject(1, ids.get());
+                    insert.setString(2, "Todo " + i);
+                    insert.setString(3, "UUID insert benchmark");
+                    insert.setBoolean(4, (i & 1) == 0);
+                    insert.setTimestamp(5, now);
+                    insert.setTimestamp(6, now);
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                    if ((i + 1) % COMMIT_EVERY == 0) {
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            long end = System.nanoTime();
+            elapsed = end - start;
+            tailElapsed = end - tailStartedAt;
+        }
+
+        long bytes;
+        try (Stream<Path> files = Files.list(dir)) {
+            bytes = files.mapToLong(file -> file.toFile().length()).sum();
+        }
+        double seconds = elapsed / 1e9;
+        System.out.printf("%s,%d,%.2f,%.0f,%.0f,%d%n", mode, rows, seconds, rows / seconds,
+                (rows / 10) / (tailElapsed / 1e9), bytes);
+    }
+
+    private static void deleteRecursively(Path dir) throws Exception {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
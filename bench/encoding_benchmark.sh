@@ -0,0 +1,103 @@
+#!/bin/bash
+set -e
+
+# GET /api/todos のエンコーディング別比較: JSON / CBOR × 非圧縮 / gzip
+# ページサイズ 20 / 100 / 1000 件ごとに、転送バイト数と1リクエストあたりのサーバー CPU 時間を測る
+# Usage: ./bench/encoding_benchmark.sh [quarkus|spring]   (default: quarkus)
+#        REQUESTS=500 ./bench/encoding_benchmark.sh spring
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+ROOT_DIR="$(dirname "$SCRIPT_DIR")"
+BACKEND=${1:-quarkus}
+REQUESTS=${REQUESTS:-200}
+SIZES=${SIZES:-"20 100 1000"}
+ROWS=1000
+
+case "$BACKEND" in
+    quarkus)
+        JAR_PATH="$ROOT_DIR/quarkus-todo/target/quarkus-app/quarkus-run.jar"
+        BASE_URL="http://localhost:8081"
+        ;;
+    spring)
+        JAR_PATH="$ROOT_DIR/spring-todo/target/spring-todo-0.0.1-SNAPSHOT.jar"
+        BASE_URL="http://localhost:8082"
+        ;;
+    *)
+        echo "Usage: $0 [quarkus|spring]"
+        exit 1
+        ;;
+esac
+
+if [ ! -f "$JAR_PATH" ]; then
+    echo "Error: JAR file not found at $JAR_PATH"
+    echo "Please run 'mvn package' in $BACKEND-todo directory first"
+    exit 1
+fi
+
+# run_quarkus.sh / run_spring.sh と同じヒープ設定
+JVM_OPTS="-Xms128m -Xmx512m -Dfile.encoding=UTF-8"
+OUTPUT_CSV="$ROOT_DIR/results/encoding_$BACKEND.csv"
+mkdir -p "$ROOT_DIR/results" "$ROOT_DIR/logs"
+
+echo "backend,size,format,encoding,bytes,cpu_us_per_request" > "$OUTPUT_CSV"
+
+# 一覧キャッシュ・リードモデルがあっても、シリアライズはリクエストごとに行われる
+java $JVM_OPTS -jar "$JAR_PATH" > "$ROOT_DIR/logs/encoding-$BACKEND.log" 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null || true' EXIT
+bash "$SCRIPT_DIR/wait_ready.sh" "$BASE_URL/health/ready"
+
+echo "Loading $ROWS todos..."
+awk -v rows=$ROWS 'BEGIN {
+    for (i = 0; i < rows; i++) {
+        printf "{\"title\":\"Todo item number %d\",\"description\":\"Description for todo %d\",\"completed\":%s,\"dueDate\":\"2026-%02d-%02d\"}\n",
+            i, i, (i % 3 == 0) ? "true" : "false", i % 12 + 1, i % 28 + 1
+    }
+}' | curl -sf -o /dev/null -X POST "$BASE_URL/api/todos/batch" \
+    -H "Content-Type: application/x-ndjson" --data-binary @-
+
+CLK_TCK=$(getconf CLK_TCK)
+
+cpu_ticks() {
+    # /proc/<pid>/stat の utime + stime（コマンド名に空白があっても崩れないよう ")" 以降を使う）
+    sed 's/^.*) //' "/proc/$PID/stat" | awk '{ print $12 + $13 }'
+}
+
+fetch() {
+    curl -sf -o /dev/null -w '%{size_download}' -H "Accept: $1" ${2:+-H "Accept-Encoding: $2"} \
+        "$BASE_URL/api/todos?size=$3"
+}
+
+# ウォームアップ（JIT）: 先に全組み合わせを回し、最初に測る組み合わせだけがコンパイル中の CPU を負担しないようにする
+for SIZE in $SIZES; do
+    for FORMAT in json cbor; do
+        for ENCODING in identity gzip; do
+            for ((i = 0; i < REQUESTS; i++)); do
+                fetch "application/$FORMAT" "$([ "$ENCODING" = gzip ] && echo gzip || true)" "$SIZE" > /dev/null
+            done
+        done
+    done
+done
+
+for SIZE in $SIZES; do
+    for FORMAT in json cbor; do
+        for ENCODING in identity gzip; do
+            ACCEPT="application/$FORMAT"
+            ACCEPT_ENCODING=$([ "$ENCODING" = gzip ] && echo gzip || true)
+
+            BEFORE=$(cpu_ticks)
+            for ((i = 0; i < REQUESTS; i++)); do
+                BYTES=$(fetch "$ACCEPT" "$ACCEPT_ENCODING" "$SIZE")
+            done
+            AFTER=$(cpu_ticks)
+
+            CPU_US=$(( (AFTER - BEFORE) * 1000000 / CLK_TCK / REQUESTS ))
+            echo "$BACKEND,$SIZE,$FORMAT,$ENCODING,$BYTES,$CPU_US" | tee -a "$OUTPUT_CSV"
+        done
+    done
+done
+
+echo ""
+column -s, -t "$OUTPUT_CSV"
+echo ""
+echo "Results saved to $OUTPUT_CSV"
@@ -0,0 +1,117 @@
+#!/bin/bash
+set -e
+
+# POST /api/todos/import のスループットとピークメモリ比較: NDJSON / CSV
+# Usage: ./bench/import_benchmark.sh [quarkus|spring] [rows]   (default: quarkus, 1000000)
+#        FORMATS="ndjson" ./bench/import_benchmark.sh spring 5000000
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+ROOT_DIR="$(dirname "$SCRIPT_DIR")"
+BACKEND=${1:-quarkus}
+ROWS=${2:-1000000}
+FORMATS=${FORMATS:-"ndjson csv"}
+
+case "$BACKEND" in
+    quarkus)
+        JAR_PATH="$ROOT_DIR/quarkus-todo/target/quarkus-app/quarkus-run.jar"
+        BASE_URL="http://localhost:8081"
+        METRICS_URL="$BASE_URL/q/metrics"
+        ;;
+    spring)
+        JAR_PATH="$ROOT_DIR/spring-todo/target/spring-todo-0.0.1-SNAPSHOT.jar"
+        BASE_URL="http://localhost:8082"
+        METRICS_URL="$BASE_URL/actuator/prometheus"
+        ;;
+    *)
+        echo "Usage: $0 [quarkus|spring] [rows]"
+        exit 1
+        ;;
+esac
+
+if [ ! -f "$JAR_PATH" ]; then
+    echo "Error: JAR file not found at $JAR_PATH"
+    echo "Please run 'mvn package' in $BACKEND-todo directory first"
+    exit 1
+fi
+
+# run_quarkus.sh / run_spring.sh と同じヒープ設定
+JVM_OPTS="-Xms128m -Xmx512m -Dfile.encoding=UTF-8"
+WORK_DIR="${TMPDIR:-/tmp}/import-bench"
+OUTPUT_CSV="$ROOT_DIR/results/import_$BACKEND.csv"
+mkdir -p "$WORK_DIR" "$ROOT_DIR/results" "$ROOT_DIR/logs"
+
+echo "backend,format,rows,upload_mb,imported,seconds,rows_per_sec,peak_heap_mb,heap_after_gc_mb,peak_rss_mb" > "$OUTPUT_CSV"
+
+heap_used() {
+    curl -s "$METRICS_URL" | awk '/^jvm_memory_used_bytes[{]/ && /area="heap"/ { sum += $NF } END { printf "%d", sum }'
+}
+
+for FORMAT in $FORMATS; do
+    # アップロードするファイルは起動前に作る（生成の CPU を計測に含めない）
+    UPLOAD="$WORK_DIR/todos.$FORMAT"
+    echo "Generating $ROWS rows ($FORMAT)..."
+    awk -v rows=$ROWS -v format=$FORMAT 'BEGIN {
+        if (format == "csv") print "title,description,completed,dueDate"
+        for (i = 0; i < rows; i++) {
+            completed = (i % 3 == 0) ? "true" : "false"
+            due = (i % 2) ? sprintf("2026-%02d-%02d", i % 12 + 1, i % 28 + 1) : ""
+            if (format == "csv") {
+                printf "Todo item number %d,\"Description for todo %d, imported\",%s,%s\n", i, i, completed, due
+            } else {
+                printf "{\"title\":\"Todo item number %d\",\"description\":\"Description for todo %d, imported\",\"completed\":%s%s}\n",
+                    i, i, completed, due == "" ? "" : ",\"dueDate\":\"" due "\""
+            }
+        }
+    }' > "$UPLOAD"
+
+    # 毎回空の DB から（./data は作業ディレクトリの下にできる）
+    RUN_DIR="$WORK_DIR/$BACKEND-$FORMAT"
+    rm -rf "$RUN_DIR"
+    mkdir -p "$RUN_DIR"
+    echo "Starting $BACKEND..."
+    (cd "$RUN_DIR" && exec java $JVM_OPTS -jar "$JAR_PATH") > "$ROOT_DIR/logs/import-$BACKEND-$FORMAT.log" 2>&1 &
+    PID=$!
+    bash "$SCRIPT_DIR/wait_ready.sh" "$BASE_URL/health/ready"
+
+    # 取り込み中のヒープ使用量（GC 前のゴミを含む）を 0.5 秒ごとに記録
+    PEAK_FILE="$RUN_DIR/peak_heap"
+    echo 0 > "$PEAK_FILE"
+    (
+        while kill -0 $PID 2>/dev/null; do
+            HEAP=$(heap_used)
+            [ "${HEAP:-0}" -gt "$(cat "$PEAK_FILE")" ] && echo "$HEAP" > "$PEAK_FILE"
+            sleep 0.5
+        done
+    ) &
+    SAMPLER=$!
+
+    echo "Importing $ROWS rows ($FORMAT)..."
+    START=$(date +%s%N)
+    IMPORTED=$(curl -sf -X POST -T "$UPLOAD" -H "Content-Type: $([ "$FORMAT" = csv ] && echo text/csv || echo application/x-ndjson)" \
+        "$BASE_URL/api/todos/import" | sed 's/.*"imported":\([0-9]*\).*/\1/')
+    END=$(date +%s%N)
+
+    kill $SAMPLER 2>/dev/null || true
+    wait $SAMPLER 2>/dev/null || true
+    # ピーク RSS はカーネルが記録している最大値
+    PEAK_RSS=$(awk '/^VmHWM:/ { print $2 }' "/proc/$PID/status")
+    # 取り込み後に残るヒープ（リードモデルなど、行数に比例する分）
+    jcmd $PID GC.run > /dev/null
+    sleep 2
+    AFTER_GC=$(heap_used)
+
+    MILLIS=$(( (END - START) / 1000000 ))
+    SECONDS_TAKEN=$(awk -v ms=$MILLIS 'BEGIN { printf "%.2f", ms / 1000 }')
+    UPLOAD_MB=$(( $(stat -c %s "$UPLOAD") / 1048576 ))
+    echo "$BACKEND,$FORMAT,$ROWS,$UPLOAD_MB,$IMPORTED,$SECONDS_TAKEN,$(( IMPORTED * 1000 / MILLIS )),$(( $(cat "$PEAK_FILE") / 1048576 )),$(( AFTER_GC / 1048576 )),$(( PEAK_RSS / 1024 ))" \
+        | tee -a "$OUTPUT_CSV"
+
+    kill $PID
+    wait $PID 2>/dev/null || true
+    rm -f "$UPLOAD"
+done
+
+echo ""
+cat "$OUTPUT_CSV"
+echo ""
+echo "Results saved to $OUTPUT_CSV"
@@ -0,0 +1,77 @@
+#!/bin/bash
+set -e
+
+# ストレージエンジン別のヒープ使用量 / ダイレクトメモリ / RSS 比較（Quarkus JVM）
+# Usage: ./bench/store_memory_benchmark.sh [rows]   (default: 1000000)
+#        ENGINES="memory offheap jpa" ./bench/store_memory_benchmark.sh
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+ROOT_DIR="$(dirname "$SCRIPT_DIR")"
+JAR_PATH="$ROOT_DIR/quarkus-todo/target/quarkus-app/quarkus-run.jar"
+ROWS=${1:-1000000}
+ENGINES=${ENGINES:-"memory offheap"}
+CHUNK=10000
+BASE_URL="http://localhost:8081"
+
+if [ ! -f "$JAR_PATH" ]; then
+    echo "Error: JAR file not found at $JAR_PATH"
+    echo "Please run 'mvn package' in quarkus-todo directory first"
+    exit 1
+fi
+
+# run_quarkus.sh と同じヒープ設定
+JVM_OPTS="-Xms128m -Xmx512m -Dfile.encoding=UTF-8"
+WORK_DIR="${TMPDIR:-/tmp}/store-memory-bench"
+OUTPUT_CSV="$ROOT_DIR/results/store_memory.csv"
+mkdir -p "$ROOT_DIR/results" "$ROOT_DIR/logs"
+
+echo "engine,rows,heap_mb,direct_mb,rss_mb" > "$OUTPUT_CSV"
+
+metric() {
+    # Prometheus 形式のメトリクスから、ラベル条件に一致する系列の合計を取る
+    curl -s "$BASE_URL/q/metrics" | awk -v name="$1" -v label="$2" \
+        '$0 ~ "^"name"[{]" && index($0, label) { sum += $NF } END { printf "%d", sum }'
+}
+
+for ENGINE in $ENGINES; do
+    rm -rf "$WORK_DIR/$ENGINE"
+    echo "Starting Quarkus with todo.store.engine=$ENGINE..."
+    java $JVM_OPTS \
+        -Dtodo.store.engine=$ENGINE \
+        -Dtodo.store.memory.dir="$WORK_DIR/$ENGINE" \
+        -Dtodo.store.memory.fsync=false \
+        -jar "$JAR_PATH" > "$ROOT_DIR/logs/store-$ENGINE.log" 2>&1 &
+    PID=$!
+    bash "$SCRIPT_DIR/wait_ready.sh" "$BASE_URL/health/ready"
+
+    echo "Loading $ROWS todos..."
+    for ((start = 0; start < ROWS; start += CHUNK)); do
+        awk -v start=$start -v count=$CHUNK -v rows=$ROWS 'BEGIN {
+            for (i = start; i < start + count && i < rows; i++) {
+                due = (i % 2) ? sprintf(",\"dueDate\":\"2026-%02d-%02d\"", i % 12 + 1, i % 28 + 1) : ""
+                printf "{\"title\":\"Todo item number %d\",\"description\":\"Description for todo %d\",\"completed\":%s%s}\n",
+                    i, i, (i % 3 == 0) ? "true" : "false", due
+            }
+        }' | curl -sf -o /dev/null -X POST "$BASE_URL/api/todos/batch" \
+            -H "Content-Type: application/x-ndjson" --data-binary @-
+    done
+
+    # 測定前に不要オブジェクトを回収
+    jcmd $PID GC.run > /dev/null
+    sleep 2
+    jcmd $PID GC.run > /dev/null
+    sleep 1
+
+    HEAP=$(metric jvm_memory_used_bytes 'area="heap"')
+    DIRECT=$(metric jvm_buffer_memory_used_bytes 'id="direct"')
+    RSS=$(ps -o rss= -p $PID | tr -d ' ')
+    echo "$ENGINE,$ROWS,$((HEAP / 1048576)),$((DIRECT / 1048576)),$((RSS / 1024))" | tee -a "$OUTPUT_CSV"
+
+    kill $PID
+    wait $PID 2>/dev/null || true
+done
+
+echo ""
+column -s, -t "$OUTPUT_CSV"
+echo ""
+echo "Results saved to $OUTPUT_CSV"
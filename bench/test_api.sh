@@ -82,6 +82,21 @@ test_endpoint() {
     fi
 }
 
+# Helper function to record a check done outside test_endpoint
+check() {
+    local test_name="$1"
+    local actual="$2"
+    local expected="$3"
+
+    if [ "$actual" = "$expected" ]; then
+        echo -e "${GREEN}✓${NC} $test_name"
+        TESTS_PASSED=$((TESTS_PASSED + 1))
+    else
+        echo -e "${RED}✗${NC} $test_name (got $actual, expected $expected)"
+        TESTS_FAILED=$((TESTS_FAILED + 1))
+    fi
+}
+
 # Start tests
 check_server
 
@@ -220,6 +235,64 @@ test_endpoint \
     "" \
     "404"
 
+echo "========================================="
+echo "  7. DELTA SYNC (GET /changes)"
+echo "========================================="
+echo ""
+
+# Prints the HTTP status of GET /changes?since=$1
+changes_status() {
+    curl -s -o /dev/null -w "%{http_code}" "$API_URL/changes?since=$1"
+}
+
+TOKEN0=$(curl -s "$API_URL/changes" | jq -r '.token')
+check "Token without since" "$([ -n "$TOKEN0" ] && [ "$TOKEN0" != "null" ] && echo ok)" "ok"
+
+SYNC_TAG="sync-$$-$RANDOM"
+SYNC1_ID=$(curl -s -X POST "$API_URL" -H "Content-Type: application/json" \
+    -d "{\"title\":\"$SYNC_TAG a\"}" | jq -r '.id')
+for title in b c d; do
+    curl -s -o /dev/null -X PATCH "$API_URL/$SYNC1_ID" -H "Content-Type: application/json" \
+        -d "{\"title\":\"$SYNC_TAG $title\"}"
+done
+SYNC2_ID=$(curl -s -X POST "$API_URL" -H "Content-Type: application/json" \
+    -d "{\"title\":\"$SYNC_TAG deleted\"}" | jq -r '.id')
+curl -s -o /dev/null -X DELETE "$API_URL/$SYNC2_ID"
+
+CHANGES=$(curl -s "$API_URL/changes?since=$TOKEN0")
+check "Todo patched three times is one entry" \
+    "$(echo "$CHANGES" | jq --arg id "$SYNC1_ID" '[.changed[] | select(.id == $id)] | length')" "1"
+check "Entry carries the latest state" \
+    "$(echo "$CHANGES" | jq -r --arg id "$SYNC1_ID" '.changed[] | select(.id == $id) | "\(.title) v\(.version)"')" \
+    "$SYNC_TAG d v3"
+check "Deleted todo is only a tombstone" \
+    "$(echo "$CHANGES" | jq --arg id "$SYNC2_ID" '[(.changed[] | select(.id == $id)), (.deleted[] | select(. == $id))] | length')" "1"
+check "Deleted todo is in deleted" \
+    "$(echo "$CHANGES" | jq --arg id "$SYNC2_ID" '.deleted | index($id) != null')" "true"
+
+TOKEN1=$(echo "$CHANGES" | jq -r '.token')
+check "Nothing changed since the returned token" \
+    "$(curl -s "$API_URL/changes?since=$TOKEN1" | jq '(.changed | length) + (.deleted | length)')" "0"
+
+check "Malformed token (400)" "$(changes_status 'not!a!token')" "400"
+# A token of another run of the process
+FOREIGN_TOKEN=$(printf '0.1' | base64 | tr '+/' '-_' | tr -d '=')
+check "Token of another run expired (410)" "$(changes_status "$FOREIGN_TOKEN")" "410"
+
+test_endpoint \
+    "Bulk PATCH by filter" \
+    "PATCH" \
+    "$API_URL?q=$SYNC_TAG" \
+    '{"completed":true}' \
+    "200"
+check "Bulk write expires older tokens (410)" "$(changes_status "$TOKEN1")" "410"
+check "Bulk write expires the first token (410)" "$(changes_status "$TOKEN0")" "410"
+TOKEN2=$(curl -s "$API_URL/changes" | jq -r '.token')
+check "Token taken after the bulk write works" "$(changes_status "$TOKEN2")" "200"
+
+curl -s -o /dev/null -X DELETE "$API_URL/$SYNC1_ID"
+
+echo ""
 echo "========================================="
 echo "  Test Summary"
 echo "========================================="
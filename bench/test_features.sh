@@ -0,0 +1,398 @@
+#!/bin/bash
+
+# Feature tests that need the server started with non-default settings
+# Each section starts the server with its own -D options from a scratch directory (so the
+# tracked ./data database is not touched), runs its checks and stops it.
+# Usage: ./test_features.sh [quarkus|spring] [section...]
+#   Default backend: quarkus
+#   Sections: changes group coalesce stream restart (default: all)
+
+BACKEND=${1:-quarkus}
+shift
+SECTIONS=${*:-"changes group coalesce stream restart"}
+
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+ROOT_DIR="$(dirname "$SCRIPT_DIR")"
+
+case "$BACKEND" in
+    quarkus)
+        PORT=8081
+        JAR_PATH="$ROOT_DIR/quarkus-todo/target/quarkus-app/quarkus-run.jar"
+        METRICS_PATH="/q/metrics"
+        ;;
+    spring)
+        PORT=8082
+        JAR_PATH="$ROOT_DIR/spring-todo/target/spring-todo-0.0.1-SNAPSHOT.jar"
+        METRICS_PATH="/actuator/prometheus"
+        ;;
+    *)
+        echo "Usage: $0 [quarkus|spring] [section...]"
+        exit 1
+        ;;
+esac
+
+if [ ! -f "$JAR_PATH" ]; then
+    echo "Error: $JAR_PATH not found, build $BACKEND first"
+    exit 1
+fi
+
+BASE_URL="http://localhost:$PORT"
+API_URL="$BASE_URL/api/todos"
+
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+TESTS_PASSED=0
+TESTS_FAILED=0
+SERVER_PID=""
+WORK_DIR=""
+
+echo "========================================="
+echo "  Todo Feature Tests"
+echo "  Backend: $BACKEND ($BASE_URL)"
+echo "========================================="
+echo ""
+
+# Starts the server with the given -D options and waits until it is ready
+start_server() {
+    WORK_DIR=$(mktemp -d)
+    (cd "$WORK_DIR" && exec java -Xmx512m "$@" -jar "$JAR_PATH" > "$WORK_DIR/server.log" 2>&1) &
+    SERVER_PID=$!
+
+    local count=0
+    while [ $count -lt 60 ]; do
+        if curl -s -f "$BASE_URL/health/ready" > /dev/null 2>&1; then
+            return 0
+        fi
+        sleep 1
+        count=$((count + 1))
+    done
+    echo -e "${RED}✗${NC} Server did not start, log: $WORK_DIR/server.log"
+    stop_server
+    exit 1
+}
+
+stop_server() {
+    if [ -n "$SERVER_PID" ]; then
+        kill $SERVER_PID 2>/dev/null || true
+        wait $SERVER_PID 2>/dev/null || true
+        SERVER_PID=""
+    fi
+}
+
+# Stops the server without its shutdown hooks, as a crash would
+crash_server() {
+    if [ -n "$SERVER_PID" ]; then
+        kill -9 $SERVER_PID 2>/dev/null || true
+        wait $SERVER_PID 2>/dev/null || true
+        SERVER_PID=""
+    fi
+}
+
+trap stop_server EXIT
+
+check() {
+    local test_name="$1"
+    local actual="$2"
+    local expected="$3"
+
+    if [ "$actual" = "$expected" ]; then
+        echo -e "${GREEN}✓${NC} $test_name"
+        TESTS_PASSED=$((TESTS_PASSED + 1))
+    else
+        echo -e "${RED}✗${NC} $test_name (got $actual, expected $expected)"
+        TESTS_FAILED=$((TESTS_FAILED + 1))
+    fi
+}
+
+# Creates a todo from a JSON body and prints its id
+create_todo() {
+    curl -s -X POST "$API_URL" -H "Content-Type: application/json" -d "$1" | jq -r '.id'
+}
+
+# Prints the value of a Prometheus sample, 0 when absent
+metric() {
+    curl -s "$BASE_URL$METRICS_PATH" | awk -v name="$1" '$1 == name { value = $2 } END { print value + 0 }'
+}
+
+# Prints the number of todos whose title or description contains $1
+count_matching() {
+    curl -s "$API_URL/export?q=$1" | grep -c .
+}
+
+section_changes() {
+    echo "========================================="
+    echo "  Change log expiry (todo.changes.max-entries=2)"
+    echo "========================================="
+    echo ""
+
+    start_server -Dtodo.changes.max-entries=2
+
+    local token0 token1
+    token0=$(curl -s "$API_URL/changes" | jq -r '.token')
+    create_todo '{"title":"changes a"}' > /dev/null
+    create_todo '{"title":"changes b"}' > /dev/null
+    check "Token still covered by the log" \
+        "$(curl -s "$API_URL/changes?since=$token0" | jq '.changed | length')" "2"
+
+    token1=$(curl -s "$API_URL/changes" | jq -r '.token')
+    create_todo '{"title":"changes c"}' > /dev/null
+    check "Token older than a dropped entry expired (410)" \
+        "$(curl -s -o /dev/null -w "%{http_code}" "$API_URL/changes?since=$token0")" "410"
+    check "Newer token still served" \
+        "$(curl -s "$API_URL/changes?since=$token1" | jq -r '[.changed[].title] | join(",")')" "changes c"
+
+    stop_server
+    echo ""
+}
+
+# A write that fails at flush (PUT without completed violates NOT NULL) is sent together with
+# good writes so they share one group transaction. The group must roll back, and each good write
+# must then commit exactly once on its own while the failing one gets its error.
+group_commit_checks() {
+    local durability="$1"
+    local tag="group-$durability-$$"
+    local ids=() i
+
+    start_server -Dtodo.write.durability="$durability" -Dtodo.write.group.max-delay=50ms
+
+    for i in 1 2 3 4 5 6; do
+        ids+=("$(create_todo "{\"title\":\"$tag $i\"}")")
+    done
+    local bad_id
+    bad_id=$(create_todo "{\"title\":\"$tag bad\"}")
+    local rollbacks_before sizes_before groups_before
+    rollbacks_before=$(metric todo_write_group_rollbacks_total)
+    sizes_before=$(metric todo_write_group_size_sum)
+    groups_before=$(metric todo_write_group_size_count)
+
+    for i in "${!ids[@]}"; do
+        curl -s -o /dev/null -w "%{http_code}" -X PUT "$API_URL/${ids[$i]}" -H "Content-Type: application/json" \
+            -d "{\"title\":\"$tag $((i + 1)) v1\",\"completed\":true}" > "$WORK_DIR/put-$i" &
+    done
+    for i in 1 2 3; do
+        curl -s -o /dev/null -w "%{http_code}" -X POST "$API_URL" -H "Content-Type: application/json" \
+            -d "{\"title\":\"$tag new $i\"}" > "$WORK_DIR/post-$i" &
+    done
+    curl -s -o /dev/null -w "%{http_code}" -X PUT "$API_URL/$bad_id" -H "Content-Type: application/json" \
+        -d "{\"title\":\"$tag bad v1\"}" > "$WORK_DIR/put-bad" &
+    wait $(jobs -p | grep -v "^$SERVER_PID$")
+    # async answers before the commit
+    sleep 1
+
+    check "Writes shared a group" \
+        "$(awk -v s="$(metric todo_write_group_size_sum)" -v c="$(metric todo_write_group_size_count)" \
+            -v s0="$sizes_before" -v c0="$groups_before" 'BEGIN { print (s - s0 > c - c0) ? "yes" : "no" }')" "yes"
+    check "Group with the failing write rolled back" \
+        "$(awk -v a="$(metric todo_write_group_rollbacks_total)" -v b="$rollbacks_before" 'BEGIN { print (a > b) ? "yes" : "no" }')" "yes"
+    check "Good PUTs answered 200" "$(cat "$WORK_DIR"/put-[0-9]* | tr -d '\n')" "200200200200200200"
+    check "POSTs answered 201" "$(cat "$WORK_DIR"/post-* | tr -d '\n')" "201201201"
+    check "Failing PUT answered with an error" "$(grep -c '^2' "$WORK_DIR/put-bad")" "0"
+
+    local committed=""
+    for i in "${!ids[@]}"; do
+        committed+="$(curl -s "$API_URL/${ids[$i]}" | jq -r '"\(.title) v\(.version) \(.completed)"');"
+    done
+    check "Each good PUT committed once" "$committed" \
+        "$(for i in 1 2 3 4 5 6; do printf '%s' "$tag $i v1 v1 true;"; done)"
+    check "Each POST committed once" "$(count_matching "$tag%20new")" "3"
+    check "Failing PUT changed nothing" \
+        "$(curl -s "$API_URL/$bad_id" | jq -r '"\(.title) v\(.version)"')" "$tag bad v0"
+
+    stop_server
+}
+
+section_group() {
+    echo "========================================="
+    echo "  Failing write inside a group commit"
+    echo "========================================="
+    echo ""
+
+    echo "todo.write.durability=group"
+    group_commit_checks group
+    echo ""
+    echo "todo.write.durability=async"
+    group_commit_checks async
+    echo ""
+}
+
+# With group durability and a long max-delay the first PATCH holds its todo's stripe until its
+# group commits. The second PATCH queues behind it and the third joins the second, so the last
+# two go out as one write.
+section_coalesce() {
+    echo "========================================="
+    echo "  Concurrent PATCHes of one todo (todo.patch.coalesce.enabled=true)"
+    echo "========================================="
+    echo ""
+
+    start_server -Dtodo.write.durability=group -Dtodo.write.group.max-delay=400ms
+
+    local id sizes_before batches_before
+    id=$(create_todo '{"title":"coalesce","description":"keep me","dueDate":"2030-01-31"}')
+    sizes_before=$(metric todo_patch_coalesce_size_sum)
+    batches_before=$(metric todo_patch_coalesce_size_count)
+
+    curl -s -X PATCH "$API_URL/$id" -H "Content-Type: application/json" \
+        -d '{"title":"first"}' > "$WORK_DIR/patch-1" &
+    sleep 0.1
+    curl -s -X PATCH "$API_URL/$id" -H "Content-Type: application/json" \
+        -d '{"title":"second","description":null}' > "$WORK_DIR/patch-2" &
+    sleep 0.1
+    curl -s -X PATCH "$API_URL/$id" -H "Content-Type: application/json" \
+        -d '{"title":"third","completed":true,"dueDate":null}' > "$WORK_DIR/patch-3" &
+    wait $(jobs -p | grep -v "^$SERVER_PID$")
+
+    local state='"\(.title) \(.description) \(.completed) \(.dueDate) v\(.version)"'
+    check "First PATCH applied alone" "$(jq -r "$state" "$WORK_DIR/patch-1")" "first keep me false 2030-01-31 v1"
+    check "Later writer's field wins, null fields untouched" \
+        "$(jq -r "$state" "$WORK_DIR/patch-3")" "third keep me true 2030-01-31 v2"
+    check "Every coalesced caller gets the merged result" \
+        "$(jq -S . "$WORK_DIR/patch-2" | md5sum)" "$(jq -S . "$WORK_DIR/patch-3" | md5sum)"
+    check "Stored todo is the merged result" "$(curl -s "$API_URL/$id" | jq -r "$state")" \
+        "third keep me true 2030-01-31 v2"
+    check "Three PATCHes went out as two writes" \
+        "$(awk -v s="$(metric todo_patch_coalesce_size_sum)" -v c="$(metric todo_patch_coalesce_size_count)" \
+            -v s0="$sizes_before" -v c0="$batches_before" 'BEGIN { print s - s0 "/" c - c0 }')" "3/2"
+
+    stop_server
+    echo ""
+}
+
+# Prints the HTTP status of a stream connection held open for $1 seconds
+stream_status() {
+    curl -s -N -o /dev/null -w "%{http_code}" --max-time "$1" "$API_URL/stream"
+}
+
+section_stream() {
+    echo "========================================="
+    echo "  Change stream limits (max-subscribers=2, subscriber-buffer=1)"
+    echo "========================================="
+    echo ""
+
+    start_server -Dtodo.stream.max-subscribers=2 -Dtodo.stream.subscriber-buffer=1 -Dtodo.stream.heartbeat=1s
+
+    curl -s -N "$API_URL/stream" > "$WORK_DIR/stream-1" &
+    local reader1=$!
+    curl -s -N "$API_URL/stream" > "$WORK_DIR/stream-2" &
+    local reader2=$!
+    sleep 1
+    check "Subscriber over the limit rejected (503)" "$(stream_status 2)" "503"
+
+    # One commit that creates 200 todos fans out 200 events at once into a one-event buffer
+    local resyncs_before id
+    resyncs_before=$(metric todo_stream_resyncs_total)
+    jq -n '[range(200) | {title: "stream \(.)"}]' \
+        | curl -s -o /dev/null -X POST "$API_URL/batch" -H "Content-Type: application/json" --data-binary @-
+    sleep 1
+    check "Overflowing subscriber told to resync" \
+        "$([ "$(grep -c '^event: *resync' "$WORK_DIR/stream-1")" -gt 0 ] && echo yes)" "yes"
+    check "Resync counted" \
+        "$(awk -v a="$(metric todo_stream_resyncs_total)" -v b="$resyncs_before" 'BEGIN { print (a > b) ? "yes" : "no" }')" "yes"
+    id=$(create_todo '{"title":"stream after resync"}')
+    sleep 1
+    check "Events flow again after the resync" "$(grep -c "$id" "$WORK_DIR/stream-1")" "1"
+
+    kill $reader1 2>/dev/null
+    wait $reader1 2>/dev/null
+    # The server notices the closed connection at the next heartbeat at the latest
+    local count=0
+    while [ $count -lt 10 ] && [ "$(metric todo_stream_subscribers)" != "1" ]; do
+        sleep 1
+        count=$((count + 1))
+    done
+    check "Disconnected subscriber released its slot" "$(metric todo_stream_subscribers)" "1"
+    check "Freed slot accepts a new subscriber (200)" "$(stream_status 2)" "200"
+
+    kill $reader2 2>/dev/null
+    wait $reader2 2>/dev/null
+    stop_server
+    echo ""
+}
+
+# Prints every stored todo, one compact JSON object per line, sorted by id
+dump_todos() {
+    curl -s "$API_URL/export" | jq -c '{id, title, description, completed, dueDate, createdAt, updatedAt, version}' | sort
+}
+
+# Writes before and after a snapshot rotation, then restarts on the same directory: after a crash
+# (snapshot plus write-ahead log replay) and after a clean stop (final snapshot only)
+restart_checks() {
+    local engine="$1"
+    local store_dir
+    store_dir=$(mktemp -d)
+    local opts=(-Dtodo.store.engine="$engine" -Dtodo.store.memory.dir="$store_dir" -Dtodo.store.memory.snapshot-interval=2s)
+    local ids=() i
+
+    start_server "${opts[@]}"
+    for i in 1 2 3 4 5; do
+        ids+=("$(create_todo "{\"title\":\"restart $i\",\"description\":\"before snapshot\",\"dueDate\":\"2030-0$i-01\"}")")
+    done
+    curl -s -o /dev/null -X PATCH "$API_URL/${ids[0]}" -H "Content-Type: application/json" -d '{"completed":true}'
+    curl -s -o /dev/null -X PATCH "$API_URL/${ids[1]}" -H "Content-Type: application/json" -d '{"title":"restart 2 v1"}'
+    curl -s -o /dev/null -X DELETE "$API_URL/${ids[2]}"
+    # Past one snapshot interval: the snapshot now covers these, and the log was rotated
+    sleep 4
+    check "Snapshot written" "$([ -f "$store_dir/snapshot.bin" ] && echo yes)" "yes"
+
+    ids+=("$(create_todo '{"title":"restart 6","description":"after snapshot"}')")
+    curl -s -o /dev/null -X PATCH "$API_URL/${ids[1]}" -H "Content-Type: application/json" -d '{"description":"after snapshot"}'
+    curl -s -o /dev/null -X PATCH "$API_URL/${ids[5]}" -H "Content-Type: application/json" -d '{"completed":true}'
+    curl -s -o /dev/null -X DELETE "$API_URL/${ids[3]}"
+    dump_todos > "$store_dir/before.jsonl"
+    crash_server
+
+    start_server "${opts[@]}"
+    dump_todos > "$store_dir/after-crash.jsonl"
+    check "Same rows after a crash" "$(wc -l < "$store_dir/after-crash.jsonl")" "4"
+    check "Same fields and versions after a crash" \
+        "$(cmp -s "$store_dir/before.jsonl" "$store_dir/after-crash.jsonl" && echo same)" "same"
+    check "Versions continue after a crash" \
+        "$(curl -s -X PATCH "$API_URL/${ids[1]}" -H "Content-Type: application/json" -d '{"completed":true}' | jq .version)" "3"
+    dump_todos > "$store_dir/before-stop.jsonl"
+    stop_server
+
+    start_server "${opts[@]}"
+    check "Same rows, fields and versions after a clean stop" \
+        "$(dump_todos | cmp -s "$store_dir/before-stop.jsonl" - && echo same)" "same"
+    stop_server
+    rm -rf "$store_dir"
+}
+
+section_restart() {
+    echo "========================================="
+    echo "  Restart from snapshot and write-ahead log"
+    echo "========================================="
+    echo ""
+
+    echo "todo.store.engine=memory"
+    restart_checks memory
+    echo ""
+    echo "todo.store.engine=offheap"
+    restart_checks offheap
+    echo ""
+}
+
+for section in $SECTIONS; do
+    if ! declare -f "section_$section" > /dev/null; then
+        echo "Unknown section: $section"
+        exit 1
+    fi
+    "section_$section"
+done
+
+echo "========================================="
+echo "  Test Summary"
+echo "========================================="
+echo ""
+echo -e "Tests Passed: ${GREEN}$TESTS_PASSED${NC}"
+echo -e "Tests Failed: ${RED}$TESTS_FAILED${NC}"
+echo ""
+
+if [ $TESTS_FAILED -eq 0 ]; then
+    echo -e "${GREEN}All tests passed! ✓${NC}"
+    exit 0
+else
+    echo -e "${RED}Some tests failed ✗${NC}"
+    exit 1
+fi
@@ -0,0 +1,37 @@
+#!/bin/bash
+set -e
+
+# ランダムUUID (v4) と時系列UUID (v7) の INSERT スループット / DBファイルサイズ比較
+# Usage: ./bench/uuid_insert_benchmark.sh [rows]   (default: 1000000)
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+ROOT_DIR="$(dirname "$SCRIPT_DIR")"
+ROWS=${1:-1000000}
+
+# H2 ドライバ（H2_JAR 未指定ならローカル Maven リポジトリから探す）
+H2_JAR=${H2_JAR:-$(find "$HOME/.m2/repository/com/h2database/h2" -name "h2-*.jar" 2>/dev/null | sort -V | tail -1)}
+if [ -z "$H2_JAR" ] || [ ! -f "$H2_JAR" ]; then
+    echo "Error: H2 jar not found. Build a module first or set H2_JAR=/path/to/h2.jar"
+    exit 1
+fi
+
+WORK_DIR="${TMPDIR:-/tmp}/uuid-bench"
+CLASSES="$WORK_DIR/classes"
+mkdir -p "$CLASSES" "$ROOT_DIR/results"
+
+javac -d "$CLASSES" \
+    "$ROOT_DIR/quarkus-todo/src/main/java/com/demo/entity/TimeOrderedUuid.java" \
+    "$SCRIPT_DIR/UuidInsertBenchmark.java"
+
+OUTPUT_CSV="$ROOT_DIR/results/uuid_insert.csv"
+echo "mode,rows,seconds,rows_per_sec,last_10pct_rows_per_sec,file_bytes" > "$OUTPUT_CSV"
+
+for MODE in random v7; do
+    echo "Inserting $ROWS rows ($MODE)..."
+    java -cp "$H2_JAR:$CLASSES" UuidInsertBenchmark "$MODE" "$ROWS" "$WORK_DIR" | tee -a "$OUTPUT_CSV"
+done
+
+echo ""
+column -s, -t "$OUTPUT_CSV"
+echo ""
+echo "Results saved to $OUTPUT_CSV"
@@ -0,0 +1,139 @@
+#!/bin/bash
+set -e
+
+# プラットフォームスレッド vs 仮想スレッドの比較（Quarkus JVM / Spring Boot JVM、高同時接続）
+# Usage: ./bench/virtual_threads_benchmark.sh [connections] [duration]   (default: 1000 30s)
+#        APPS="quarkus" ./bench/virtual_threads_benchmark.sh 2000 60s
+#        APPS="spring spring-reactive" ./bench/virtual_threads_benchmark.sh   # WebFlux + R2DBC のイベントループと比較
+# 負荷生成に hey (https://github.com/rakyll/hey) を使用
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+ROOT_DIR="$(dirname "$SCRIPT_DIR")"
+QUARKUS_JAR="$ROOT_DIR/quarkus-todo/target/quarkus-app/quarkus-run.jar"
+# quarkus.virtual-threads.enabled はビルド時に固定されるため、仮想スレッド版は -Pvthreads で別にビルドする
+QUARKUS_VTHREADS_JAR="$ROOT_DIR/quarkus-todo/target/vthreads/quarkus-run.jar"
+SPRING_JAR="$ROOT_DIR/spring-todo/target/spring-todo-0.0.1-SNAPSHOT.jar"
+REACTIVE_JAR="$ROOT_DIR/spring-todo-reactive/target/spring-todo-reactive-0.0.1-SNAPSHOT.jar"
+CONNECTIONS=${1:-1000}
+DURATION=${2:-30s}
+APPS=${APPS:-"quarkus spring"}
+SEED_ROWS=1000
+
+if ! command -v hey > /dev/null; then
+    echo "Error: hey not found"
+    echo "Install it with 'go install github.com/rakyll/hey@latest' or your package manager"
+    exit 1
+fi
+
+# 1000接続以上ではクライアント側のファイルディスクリプタ上限に当たりやすい
+ulimit -n 65536 2> /dev/null || echo "Warning: could not raise open file limit ($(ulimit -n))"
+
+# run_*.sh と同じヒープ設定
+JVM_OPTS="-Xms128m -Xmx512m -Dfile.encoding=UTF-8"
+OUTPUT_CSV="$ROOT_DIR/results/virtual_threads.csv"
+mkdir -p "$ROOT_DIR/results" "$ROOT_DIR/logs"
+
+echo "app,mode,scenario,connections,requests_per_sec,p50_ms,p99_ms,errors,peak_threads,pinned_events,rss_mb" > "$OUTPUT_CSV"
+
+metric() {
+    # Prometheus 形式のメトリクスから、同名の全系列の合計を取る
+    curl -s "$METRICS_URL" | awk -v name="$1" \
+        '$0 ~ "^"name"[{ ]" { sum += $NF } END { printf "%d", sum }'
+}
+
+run_load() {
+    # hey のサマリから req/s, p50, p99, エラー数（非2xx + 接続エラー）を取り出す
+    hey -z "$DURATION" -c "$CONNECTIONS" "$@" | awk '
+        /Requests\/sec:/ { rps = $2 }
+        / 50% in / { p50 = $3 * 1000 }
+        / 99% in / { p99 = $3 * 1000 }
+        /Status code distribution:/ { section = "status" }
+        /Error distribution:/ { section = "error" }
+        section == "status" && /\[[0-9]+\]/ { code = $1; gsub(/[][]/, "", code); if (code !~ /^2/) errors += $2 }
+        section == "error" && /\[[0-9]+\]/ { count = $1; gsub(/[][]/, "", count); errors += count }
+        END { printf "%.1f,%.1f,%.1f,%d", rps, p50, p99, errors }'
+}
+
+for APP in $APPS; do
+    MODES="platform virtual"
+    VIRTUAL_JAR=""
+    if [ "$APP" = "quarkus" ]; then
+        JAR_PATH="$QUARKUS_JAR"
+        VIRTUAL_JAR="$QUARKUS_VTHREADS_JAR"
+        BASE_URL="http://localhost:8081"
+        METRICS_URL="$BASE_URL/q/metrics"
+        VIRTUAL_PROPERTY=""
+    elif [ "$APP" = "spring-reactive" ]; then
+        # スレッドモデルの切り替えはなく、イベントループの1モードのみ
+        JAR_PATH="$REACTIVE_JAR"
+        BASE_URL="http://localhost:8083"
+        METRICS_URL="$BASE_URL/actuator/prometheus"
+        VIRTUAL_PROPERTY="spring.threads.virtual.enabled"
+        MODES="event-loop"
+    else
+        JAR_PATH="$SPRING_JAR"
+        BASE_URL="http://localhost:8082"
+        METRICS_URL="$BASE_URL/actuator/prometheus"
+        VIRTUAL_PROPERTY="spring.threads.virtual.enabled"
+    fi
+    if [ ! -f "$JAR_PATH" ]; then
+        echo "Error: JAR file not found at $JAR_PATH"
+        echo "Please run 'mvn package' in $(basename "$(dirname "$(dirname "$JAR_PATH")")") directory first"
+        exit 1
+    fi
+    if [ -n "$VIRTUAL_JAR" ] && [ ! -f "$VIRTUAL_JAR" ]; then
+        echo "Error: JAR file not found at $VIRTUAL_JAR"
+        echo "Please run 'mvn package -Pvthreads' in quarkus-todo directory first"
+        exit 1
+    fi
+
+    for MODE in $MODES; do
+        echo "Starting $APP with $MODE threads..."
+        MODE_JAR="$JAR_PATH"
+        MODE_OPTS=""
+        if [ "$MODE" = "virtual" ] && [ -n "$VIRTUAL_JAR" ]; then
+            MODE_JAR="$VIRTUAL_JAR"
+        elif [ -n "$VIRTUAL_PROPERTY" ]; then
+            MODE_OPTS="-D$VIRTUAL_PROPERTY=$([ "$MODE" = "virtual" ] && echo true || echo false)"
+        fi
+        # 一覧キャッシュを切り、毎リクエストが DB に行くようにする
+        java $JVM_OPTS $MODE_OPTS \
+            -Dtodo.list-cache.enabled=false \
+            -jar "$MODE_JAR" > "$ROOT_DIR/logs/vthreads-$APP-$MODE.log" 2>&1 &
+        PID=$!
+        bash "$SCRIPT_DIR/wait_ready.sh" "$BASE_URL/health/ready"
+
+        awk -v rows=$SEED_ROWS 'BEGIN {
+            for (i = 0; i < rows; i++) {
+                printf "{\"title\":\"Todo item number %d\",\"completed\":%s}\n", i, (i % 3 == 0) ? "true" : "false"
+            }
+        }' | curl -sf -o /dev/null -X POST "$BASE_URL/api/todos/batch" \
+            -H "Content-Type: application/x-ndjson" --data-binary @-
+
+        # ウォームアップ（JIT とコネクションプール）
+        hey -z 10s -c 50 "$BASE_URL/api/todos?size=20" > /dev/null
+
+        echo "  list ($CONNECTIONS connections, $DURATION)..."
+        LIST=$(run_load "$BASE_URL/api/todos?size=20")
+        LIST_PINNED=$(metric todo_virtual_threads_pinned_seconds_count)
+        echo "  create ($CONNECTIONS connections, $DURATION)..."
+        CREATE=$(run_load -m POST -T "application/json" \
+            -d '{"title":"Virtual thread benchmark","description":"created under load"}' "$BASE_URL/api/todos")
+
+        CREATE_PINNED=$(($(metric todo_virtual_threads_pinned_seconds_count) - LIST_PINNED))
+
+        # ピークスレッド数と RSS は両シナリオを通した値
+        PEAK=$(metric jvm_threads_peak_threads)
+        RSS=$(ps -o rss= -p $PID | tr -d ' ')
+        echo "$APP,$MODE,list,$CONNECTIONS,$LIST,$PEAK,$LIST_PINNED,$((RSS / 1024))" | tee -a "$OUTPUT_CSV"
+        echo "$APP,$MODE,create,$CONNECTIONS,$CREATE,$PEAK,$CREATE_PINNED,$((RSS / 1024))" | tee -a "$OUTPUT_CSV"
+
+        kill $PID
+        wait $PID 2>/dev/null || true
+    done
+done
+
+echo ""
+column -s, -t "$OUTPUT_CSV"
+echo ""
+echo "Results saved to $OUTPUT_CSV"
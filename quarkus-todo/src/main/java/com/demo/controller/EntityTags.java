@@ -0,0 +1,74 @@
+package com.demo.controller;
+
+import com.demo.dto.TodoResponse;
+
+/**
+ * Entity tags. Single todos get a strong tag, their optimistic-lock version, which If-Match
+ * checks. Their JSON and CBOR forms carry the same tag, so those responses send Vary: Accept
+ * and a cache keeps the two forms apart. Lists get a weak tag, the position of the change log,
+ * which moves with every committed write: lists are the responses worth compressing, and
+ * servlet containers do not compress a response that carries a strong tag.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(TodoResponse todo) {
+        return of(todo.getVersion());
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String ofList(String listVersion) {
+        return "W/\"" + listVersion + "\"";
+    }
+
+    /**
+     * Whether an If-None-Match header names {@code etag} or is {@code *}. If-None-Match compares
+     * weakly, so the W/ prefix is ignored on both sides.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = opaqueTag(etag);
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || opaqueTag(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * Parses an If-Match header into the expected version.
+     *
+     * @return the version, or null when the header is absent or {@code *}
+     * @throws IllegalArgumentException if the header is not a single entity tag issued by {@link #of}
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            throw new IllegalArgumentException("If-Match requires a strong entity tag");
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Malformed If-Match header: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed If-Match header: " + ifMatch, e);
+        }
+    }
+}
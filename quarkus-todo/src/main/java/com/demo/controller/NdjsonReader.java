@@ -0,0 +1,44 @@
+package com.demo.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads newline-delimited JSON. Blank lines are skipped and a line that does not
+ * parse becomes a null item so callers can report it by index.
+ */
+final class NdjsonReader {
+
+    static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private NdjsonReader() {
+    }
+
+    static <T> List<T> readAll(InputStream body, ObjectMapper mapper, Class<T> type) {
+        List<T> items = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    items.add(mapper.readValue(line, type));
+                } catch (IOException e) {
+                    items.add(null);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return items;
+    }
+}
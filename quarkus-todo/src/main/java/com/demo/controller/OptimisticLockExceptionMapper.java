@@ -0,0 +1,22 @@
+package com.demo.controller;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+import java.util.Map;
+
+/**
+ * A concurrent write won the version check during an unconditional PUT/PATCH.
+ */
+@Provider
+public class OptimisticLockExceptionMapper implements ExceptionMapper<OptimisticLockException> {
+
+    @Override
+    public Response toResponse(OptimisticLockException exception) {
+        return Response.status(Response.Status.CONFLICT)
+                .entity(Map.of("status", 409, "detail", "Todo was modified concurrently, retry the request"))
+                .build();
+    }
+}
@@ -1,67 +1,295 @@
 package com.demo.controller;
 
+import com.demo.dto.BatchCreateResponse;
 import com.demo.dto.CreateTodoRequest;
 import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoChangesResponse;
+import com.demo.dto.TodoCursor;
+import com.demo.dto.TodoFields;
+import com.demo.dto.TodoImportResponse;
 import com.demo.dto.TodoResponse;
+import com.demo.dto.TodoSlice;
+import com.demo.dto.TodoStatsResponse;
 import com.demo.dto.UpdateTodoRequest;
+import com.demo.service.TodoEventStream;
 import com.demo.service.TodoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 
 @Path("/api/todos")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, CborProvider.MEDIA_TYPE})
+@Consumes({MediaType.APPLICATION_JSON, CborProvider.MEDIA_TYPE})
 @Tag(name = "Todo", description = "Todo CRUD operations")
+// Takes effect only with quarkus.virtual-threads.enabled=true; otherwise requests stay on the worker pool
+@RunOnVirtualThread
 public class TodoController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_CHANGES_LIMIT = 10000;
+    // Lists may be stored but must be revalidated, which a matching If-None-Match makes cheap
+    private static final String NO_CACHE = "no-cache";
+
     @Inject
     TodoService todoService;
 
+    @Inject
+    ObjectMapper objectMapper;
+
     @POST
     @Operation(summary = "Create a new todo")
     public Response create(@Valid CreateTodoRequest request) {
         TodoResponse response = todoService.create(request);
-        return Response.status(Response.Status.CREATED).entity(response).build();
+        return withETag(Response.status(Response.Status.CREATED), response);
+    }
+
+    @POST
+    @Path("/batch")
+    @Operation(summary = "Create todos in bulk from a JSON array")
+    public Response createBatch(List<CreateTodoRequest> requests) {
+        if (requests == null) {
+            throw new BadRequestException("Request body must be a JSON array");
+        }
+        return batchResponse(todoService.createBatch(requests));
+    }
+
+    @POST
+    @Path("/batch")
+    @Consumes(NdjsonReader.MEDIA_TYPE)
+    @Operation(summary = "Create todos in bulk from NDJSON")
+    public Response createBatchNdjson(InputStream body) {
+        return batchResponse(todoService.createBatch(NdjsonReader.readAll(body, objectMapper, CreateTodoRequest.class)));
+    }
+
+    /**
+     * Imports an upload of any size: records are parsed and validated as the body arrives and
+     * inserted in chunked transactions, and reading pauses while the inserts are behind.
+     */
+    @POST
+    @Path("/import")
+    @Consumes({NdjsonReader.MEDIA_TYPE, TodoExportWriter.CSV_MEDIA_TYPE})
+    @Operation(summary = "Import todos from an NDJSON or CSV upload")
+    public Response importTodos(@HeaderParam(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) {
+        TodoExportWriter.Format format = contentType.isCompatible(MediaType.valueOf(TodoExportWriter.CSV_MEDIA_TYPE))
+                ? TodoExportWriter.Format.CSV : TodoExportWriter.Format.NDJSON;
+        TodoImportReader rows;
+        try {
+            rows = TodoImportReader.open(format, body, objectMapper);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        TodoImportResponse response = todoService.importTodos(rows);
+        // Same statuses as a batch: 201 when everything was imported, 200 when some was, 400 when none was
+        Response.Status status = response.getFailed() == 0 ? Response.Status.CREATED
+                : response.getImported() > 0 ? Response.Status.OK
+                : Response.Status.BAD_REQUEST;
+        return Response.status(status).entity(response).build();
     }
 
     @GET
-    @Operation(summary = "Get all todos")
-    public List<TodoResponse> getAll(
+    @Operation(summary = "Get all todos, or 304 when If-None-Match carries the list ETag")
+    public Response getAll(
             @QueryParam("completed") Boolean completed,
             @QueryParam("q") String query,
+            @QueryParam("cursor") String cursor,
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("20") int size,
-            @QueryParam("sort") @DefaultValue("updatedAt,desc") String sort) {
-        return todoService.findAll(completed, query, page, size, sort);
+            @QueryParam("sort") @DefaultValue("updatedAt,desc") String sort,
+            @QueryParam("fields") String fields,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        List<String> projection = parseFields(fields);
+        // Taken before the read, so the page is at least as new as its tag
+        String etag = EntityTags.ofList(todoService.listVersion());
+        if (EntityTags.matches(ifNoneMatch, etag)) {
+            return Response.notModified()
+                    .header(HttpHeaders.ETAG, etag)
+                    .header(HttpHeaders.CACHE_CONTROL, NO_CACHE)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                    .build();
+        }
+        TodoSlice<?> slice = projection == null
+                ? todoService.findAll(completed, query, parseCursor(cursor), page, size, sort)
+                : todoService.findAllProjected(completed, query, parseCursor(cursor), page, size, sort, projection);
+        Response.ResponseBuilder builder = Response.ok(slice.getItems())
+                .header(HttpHeaders.ETAG, etag)
+                .header(HttpHeaders.CACHE_CONTROL, NO_CACHE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (slice.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, slice.getNextCursor());
+        }
+        return builder.build();
+    }
+
+    @GET
+    @Path("/stats")
+    @Operation(summary = "Get open, completed and overdue counts")
+    public TodoStatsResponse stats() {
+        return todoService.stats();
+    }
+
+    /**
+     * Writes every todo matching the filters, most recently updated first, as NDJSON or CSV while
+     * it is read from the store. Writes block while the client is not reading, which holds the
+     * scan back, so memory stays flat however large the result is.
+     */
+    @GET
+    @Path("/export")
+    @Produces({NdjsonReader.MEDIA_TYPE, TodoExportWriter.CSV_MEDIA_TYPE})
+    @Operation(summary = "Export the todos matching the filters as NDJSON or CSV")
+    public Response export(
+            @QueryParam("completed") Boolean completed,
+            @QueryParam("q") String query,
+            @QueryParam("format") @DefaultValue("ndjson") String format) {
+        TodoExportWriter.Format exportFormat = parseFormat(format);
+        StreamingOutput body = out -> {
+            TodoExportWriter writer = TodoExportWriter.open(exportFormat, out, objectMapper);
+            try {
+                todoService.export(completed, query, todo -> {
+                    try {
+                        writer.write(todo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+        };
+        return Response.ok(body, exportFormat.mediaType + ";charset=UTF-8")
+                .header("Content-Disposition", "attachment; filename=\"" + exportFormat.fileName() + "\"")
+                .build();
+    }
+
+    /**
+     * Todos created or modified and ids deleted after {@code since}, plus the token for the next
+     * call; without {@code since}, only the current token. 410 means the token expired and the
+     * list has to be reloaded.
+     */
+    @GET
+    @Path("/changes")
+    @Operation(summary = "Get the todos changed since a change token")
+    public TodoChangesResponse changes(
+            @QueryParam("since") String since,
+            @QueryParam("limit") @DefaultValue("1000") int limit) {
+        if (limit < 1 || limit > MAX_CHANGES_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_CHANGES_LIMIT);
+        }
+        return todoService.changesSince(since, limit);
+    }
+
+    /**
+     * Server-Sent Events {@code created}, {@code updated} (data: the todo) and {@code deleted}
+     * (data: its id) for changes committed while connected, and {@code resync} when changes were
+     * missed and the list has to be reloaded. Nothing is replayed on reconnect: clients reload then.
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Stream todo changes as Server-Sent Events")
+    public void stream(@Context SseEventSink eventSink, @Context Sse sse) {
+        todoService.subscribe(new TodoEventStream.Sink() {
+            @Override
+            public void send(String name, Object data) throws IOException {
+                write(sse.newEventBuilder().name(name).mediaType(MediaType.APPLICATION_JSON_TYPE).data(data).build());
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                write(sse.newEventBuilder().comment("heartbeat").build());
+            }
+
+            @Override
+            public void close() {
+                eventSink.close();
+            }
+
+            private void write(OutboundSseEvent event) throws IOException {
+                if (eventSink.isClosed()) {
+                    throw new IOException("Stream closed by the client");
+                }
+                try {
+                    eventSink.send(event).toCompletableFuture().get();
+                } catch (ExecutionException e) {
+                    throw new IOException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+        });
     }
 
     @GET
     @Path("/{id}")
-    @Operation(summary = "Get a todo by ID")
-    public TodoResponse getById(@PathParam("id") UUID id) {
-        return todoService.findById(id);
+    @Operation(summary = "Get a todo by ID, or 304 when If-None-Match carries its ETag")
+    public Response getById(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            // Only the version is read while the client's copy is current
+            String etag = EntityTags.of(todoService.findVersion(id));
+            if (EntityTags.matches(ifNoneMatch, etag)) {
+                return Response.notModified()
+                        .header(HttpHeaders.ETAG, etag)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                        .build();
+            }
+        }
+        return withETag(Response.ok(), todoService.findById(id));
     }
 
     @PUT
     @Path("/{id}")
-    @Operation(summary = "Update a todo")
-    public TodoResponse update(@PathParam("id") UUID id, @Valid UpdateTodoRequest request) {
-        return todoService.update(id, request);
+    @Operation(summary = "Update a todo, conditionally when If-Match carries its ETag")
+    public Response update(@PathParam("id") UUID id,
+                           @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                           @Valid UpdateTodoRequest request) {
+        return withETag(Response.ok(), todoService.update(id, request, expectedVersion(ifMatch)));
     }
 
     @PATCH
     @Path("/{id}")
-    @Operation(summary = "Partially update a todo")
-    public TodoResponse patch(@PathParam("id") UUID id, @Valid PatchTodoRequest request) {
-        return todoService.patch(id, request);
+    @Operation(summary = "Partially update a todo, conditionally when If-Match carries its ETag")
+    public Response patch(@PathParam("id") UUID id,
+                          @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                          @Valid PatchTodoRequest request) {
+        return withETag(Response.ok(), todoService.patch(id, request, expectedVersion(ifMatch)));
+    }
+
+    @PATCH
+    @Operation(summary = "Partially update all todos matching the filters")
+    public Map<String, Integer> patchAll(
+            @QueryParam("completed") Boolean completed,
+            @QueryParam("q") String query,
+            @Valid PatchTodoRequest request) {
+        return Map.of("affected", todoService.patchAll(completed, query, request));
+    }
+
+    @DELETE
+    @Operation(summary = "Delete all todos matching the filters")
+    public Map<String, Integer> deleteAll(
+            @QueryParam("completed") Boolean completed,
+            @QueryParam("q") String query) {
+        return Map.of("affected", todoService.deleteAll(completed, query));
     }
 
     @DELETE
@@ -71,4 +299,54 @@ public class TodoController {
         todoService.delete(id);
         return Response.noContent().build();
     }
+
+    private static Response withETag(Response.ResponseBuilder builder, TodoResponse todo) {
+        return builder.entity(todo)
+                .header(HttpHeaders.ETAG, EntityTags.of(todo))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    private static Long expectedVersion(String ifMatch) {
+        try {
+            return EntityTags.expectedVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private static Response batchResponse(BatchCreateResponse response) {
+        // 201 when everything was created, 200 for a partial batch, 400 when nothing was
+        Response.Status status = response.getErrors().isEmpty() ? Response.Status.CREATED
+                : response.getCreated() > 0 ? Response.Status.OK
+                : Response.Status.BAD_REQUEST;
+        return Response.status(status).entity(response).build();
+    }
+
+    private static List<String> parseFields(String fields) {
+        try {
+            return TodoFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private static TodoExportWriter.Format parseFormat(String format) {
+        try {
+            return TodoExportWriter.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    private static TodoCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return TodoCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package com.demo.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public class BatchCreateResponse {
+
+    // Aligned with the request items, null where the item was rejected
+    private List<UUID> ids;
+    private int created;
+    private List<BatchItemError> errors;
+
+    public BatchCreateResponse() {
+    }
+
+    public BatchCreateResponse(List<UUID> ids, int created, List<BatchItemError> errors) {
+        this.ids = ids;
+        this.created = created;
+        this.errors = errors;
+    }
+
+    // Getters and Setters
+    public List<UUID> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<UUID> ids) {
+        this.ids = ids;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public List<BatchItemError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BatchItemError> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,52 @@
+package com.demo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position (updatedAt, id) used by cursor pagination.
+ */
+public final class TodoCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final Instant updatedAt;
+    private final UUID id;
+
+    public TodoCursor(Instant updatedAt, UUID id) {
+        this.updatedAt = updatedAt;
+        this.id = id;
+    }
+
+    public static TodoCursor after(TodoResponse last) {
+        return new TodoCursor(last.getUpdatedAt(), last.getId());
+    }
+
+    public static TodoCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARATOR);
+            if (sep < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new TodoCursor(Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = updatedAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,43 @@
+package com.demo.dto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses the {@code fields} list parameter into Todo attribute names, in response order.
+ */
+public final class TodoFields {
+
+    public static final List<String> ALL = List.of(
+            "id", "title", "description", "completed", "dueDate", "createdAt", "updatedAt", "version");
+
+    private TodoFields() {
+    }
+
+    /**
+     * @return the requested attributes in canonical order, or null when every field is wanted
+     * @throws IllegalArgumentException if a name is not a TodoResponse field
+     */
+    public static List<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        List<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+        for (String name : requested) {
+            if (!ALL.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + ", allowed: " + String.join(",", ALL));
+            }
+        }
+        List<String> ordered = new ArrayList<>();
+        for (String name : ALL) {
+            if (requested.contains(name)) {
+                ordered.add(name);
+            }
+        }
+        return ordered.size() == ALL.size() ? null : ordered;
+    }
+}
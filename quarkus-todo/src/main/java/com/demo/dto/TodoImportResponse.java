@@ -0,0 +1,65 @@
+package com.demo.dto;
+
+import java.util.List;
+
+public class TodoImportResponse {
+
+    private long read;
+    private long imported;
+    private long failed;
+    // Rejected or failed records by line number (index), at most todo.import.max-errors of them
+    private List<BatchItemError> errors;
+    private boolean errorsTruncated;
+
+    public TodoImportResponse() {
+    }
+
+    public TodoImportResponse(long read, long imported, long failed, List<BatchItemError> errors, boolean errorsTruncated) {
+        this.read = read;
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    // Getters and Setters
+    public long getRead() {
+        return read;
+    }
+
+    public void setRead(long read) {
+        this.read = read;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchItemError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BatchItemError> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+}
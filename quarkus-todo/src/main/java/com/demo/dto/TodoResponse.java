@@ -14,6 +14,7 @@ public class TodoResponse {
     private LocalDate dueDate;
     private Instant createdAt;
     private Instant updatedAt;
+    private Long version;
 
     public TodoResponse() {
     }
@@ -26,6 +27,7 @@ public class TodoResponse {
         this.dueDate = todo.getDueDate();
         this.createdAt = todo.getCreatedAt();
         this.updatedAt = todo.getUpdatedAt();
+        this.version = todo.getVersion();
     }
 
     // Getters and Setters
@@ -84,4 +86,12 @@ public class TodoResponse {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
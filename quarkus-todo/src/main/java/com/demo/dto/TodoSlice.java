@@ -0,0 +1,25 @@
+package com.demo.dto;
+
+import java.util.List;
+
+/**
+ * One page of list results plus the cursor for the page that follows it.
+ */
+public class TodoSlice<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public TodoSlice(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,39 @@
+package com.demo.entity;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUIDv7 (RFC 9562) generator: 48-bit Unix millis, then a 12-bit sequence in rand_a,
+ * then 62 random bits. New keys always append to the right edge of the primary-key
+ * B-tree instead of landing on a random page.
+ * <p>
+ * The timestamp and sequence share one atomic counter, so ids are strictly increasing
+ * within the JVM even under concurrent creates. When more than 4096 ids are requested
+ * in one millisecond, or the clock steps backwards, the counter moves ahead of the wall
+ * clock until the clock catches up (RFC 9562 §6.2, method 3).
+ */
+public final class TimeOrderedUuid {
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // (unix millis << 12) | sequence of the last id handed out
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private TimeOrderedUuid() {
+    }
+
+    public static UUID next() {
+        long floor = System.currentTimeMillis() << SEQUENCE_BITS;
+        long stamp = LAST.updateAndGet(last -> Math.max(last + 1, floor));
+
+        long msb = ((stamp >>> SEQUENCE_BITS) << 16)   // unix_ts_ms (48 bits)
+                | 0x7000L                              // version 7
+                | (stamp & SEQUENCE_MASK);             // rand_a used as sequence
+        long lsb = (ThreadLocalRandom.current().nextLong() >>> 2)
+                | 0x8000000000000000L;                 // variant 10
+        return new UUID(msb, lsb);
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.health;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+
+/**
+ * Reports carrier-thread pinning while the REST endpoints run on virtual threads
+ * ({@code quarkus.virtual-threads.enabled=true}).
+ *
+ * <p>A virtual thread that blocks inside a synchronized block or a native frame cannot unmount,
+ * so it holds its carrier thread (one per core by default) for the whole wait. The JDK emits
+ * a {@code jdk.VirtualThreadPinned} JFR event for such waits; this streams them into the
+ * {@code todo.virtual-threads.pinned} timer, tagged with the first non-JDK frame on the stack,
+ * which is normally the library method holding the monitor.
+ */
+@ApplicationScoped
+public class PinnedThreadMonitor {
+
+    private static final Logger LOG = Logger.getLogger(PinnedThreadMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "quarkus.virtual-threads.enabled", defaultValue = "true")
+    boolean virtualThreads;
+
+    @ConfigProperty(name = "todo.virtual-threads.pinned-threshold", defaultValue = "20ms")
+    Duration threshold;
+
+    private RecordingStream stream;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (!virtualThreads) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            // Native images built without --enable-monitoring=jfr
+            LOG.info("JFR is not available; virtual thread pinning is not reported");
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+        stream = recording;
+        LOG.infof("Reporting virtual thread pinning longer than %d ms", threshold.toMillis());
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        String frame = culprit(event.getStackTrace());
+        Timer.builder("todo.virtual-threads.pinned")
+                .description("Time virtual threads blocked while pinned to their carrier thread")
+                .tag("frame", frame)
+                .register(registry)
+                .record(event.getDuration());
+        LOG.debugf("Virtual thread pinned for %d ms at %s", event.getDuration().toMillis(), frame);
+    }
+
+    /** The innermost application or library frame; the JDK frames above it are the park itself. */
+    static String culprit(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+}
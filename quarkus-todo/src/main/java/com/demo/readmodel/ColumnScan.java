@@ -0,0 +1,39 @@
+package com.demo.readmodel;
+
+/**
+ * Filter kernels over {@link TodoColumns}. Bitset arguments hold one bit per slot, slot
+ * {@code i} at bit {@code i % 64} of word {@code i / 64}.
+ *
+ * <p>{@link #create()} returns the SIMD kernels when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and plain loops otherwise.
+ */
+interface ColumnScan {
+
+    /** {@code out = a & b}, or {@code a & ~b} when {@code negate}, over the first {@code words} words. */
+    void and(long[] a, long[] b, boolean negate, long[] out, int words);
+
+    /**
+     * Sets the bit of every slot below {@code count} whose value is after {@code pivot} (greater when
+     * {@code greater}, less otherwise) in {@code beyond}, and of every slot equal to it in {@code tied}.
+     * Both are cleared first.
+     */
+    void compare(long[] values, int count, long pivot, boolean greater, long[] beyond, long[] tied);
+
+    /** Whether {@code needle} occurs in {@code haystack}. */
+    boolean contains(byte[] haystack, byte[] needle);
+
+    String name();
+
+    static ColumnScan create() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Reflective so the scalar path never links against the incubator module
+                return (ColumnScan) Class.forName("com.demo.readmodel.VectorColumnScan")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall through to the scalar kernels
+            }
+        }
+        return new ScalarColumnScan();
+    }
+}
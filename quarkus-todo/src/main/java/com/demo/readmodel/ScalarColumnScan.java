@@ -0,0 +1,48 @@
+package com.demo.readmodel;
+
+import java.util.Arrays;
+
+/** Plain-loop {@link ColumnScan}; C2 still unrolls and partly vectorizes the bitset loop. */
+final class ScalarColumnScan implements ColumnScan {
+
+    @Override
+    public void and(long[] a, long[] b, boolean negate, long[] out, int words) {
+        for (int i = 0; i < words; i++) {
+            out[i] = a[i] & (negate ? ~b[i] : b[i]);
+        }
+    }
+
+    @Override
+    public void compare(long[] values, int count, long pivot, boolean greater, long[] beyond, long[] tied) {
+        Arrays.fill(beyond, 0L);
+        Arrays.fill(tied, 0L);
+        for (int i = 0; i < count; i++) {
+            long value = values[i];
+            if (greater ? value > pivot : value < pivot) {
+                beyond[i >>> 6] |= 1L << i;
+            } else if (value == pivot) {
+                tied[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(byte[] haystack, byte[] needle) {
+        int last = haystack.length - needle.length;
+        if (needle.length == 0) {
+            return true;
+        }
+        byte first = needle[0];
+        for (int i = 0; i <= last; i++) {
+            if (haystack[i] == first && Arrays.equals(haystack, i, i + needle.length, needle, 0, needle.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.readmodel;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * {@link ColumnScan} on the Vector API, at the widest lane count the CPU has (AVX2, AVX-512, NEON).
+ * Only instantiated, through {@link ColumnScan#create()}, when jdk.incubator.vector is loaded.
+ */
+final class VectorColumnScan implements ColumnScan {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    public void and(long[] a, long[] b, boolean negate, long[] out, int words) {
+        int i = 0;
+        for (int bound = LONGS.loopBound(words); i < bound; i += LONGS.length()) {
+            LongVector left = LongVector.fromArray(LONGS, a, i);
+            LongVector right = LongVector.fromArray(LONGS, b, i);
+            (negate ? left.and(right.not()) : left.and(right)).intoArray(out, i);
+        }
+        for (; i < words; i++) {
+            out[i] = a[i] & (negate ? ~b[i] : b[i]);
+        }
+    }
+
+    @Override
+    public void compare(long[] values, int count, long pivot, boolean greater, long[] beyond, long[] tied) {
+        Arrays.fill(beyond, 0L);
+        Arrays.fill(tied, 0L);
+        VectorOperators.Comparison after = greater ? VectorOperators.GT : VectorOperators.LT;
+        int lanes = LONGS.length();
+        int i = 0;
+        // At most 8 lanes, so a vector's mask never straddles two bitset words
+        for (int bound = LONGS.loopBound(count); i < bound; i += lanes) {
+            LongVector v = LongVector.fromArray(LONGS, values, i);
+            beyond[i >>> 6] |= v.compare(after, pivot).toLong() << i;
+            tied[i >>> 6] |= v.compare(VectorOperators.EQ, pivot).toLong() << i;
+        }
+        for (; i < count; i++) {
+            long value = values[i];
+            if (greater ? value > pivot : value < pivot) {
+                beyond[i >>> 6] |= 1L << i;
+            } else if (value == pivot) {
+                tied[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Compares a block of haystack bytes against the needle's first byte and, shifted by the needle
+     * length, against its last byte; only positions where both match are checked in full.
+     */
+    @Override
+    public boolean contains(byte[] haystack, byte[] needle) {
+        int n = needle.length;
+        if (n == 0) {
+            return true;
+        }
+        int last = haystack.length - n;
+        if (last < 0) {
+            return false;
+        }
+        int lanes = BYTES.length();
+        ByteVector first = ByteVector.broadcast(BYTES, needle[0]);
+        ByteVector end = ByteVector.broadcast(BYTES, needle[n - 1]);
+        int i = 0;
+        for (; i + n - 1 + lanes <= haystack.length; i += lanes) {
+            long hits = ByteVector.fromArray(BYTES, haystack, i).compare(VectorOperators.EQ, first)
+                    .and(ByteVector.fromArray(BYTES, haystack, i + n - 1).compare(VectorOperators.EQ, end))
+                    .toLong();
+            while (hits != 0) {
+                int at = i + Long.numberOfTrailingZeros(hits);
+                if (Arrays.equals(haystack, at, at + n, needle, 0, n)) {
+                    return true;
+                }
+                hits &= hits - 1;
+            }
+        }
+        for (; i <= last; i++) {
+            if (haystack[i] == needle[0] && Arrays.equals(haystack, i, i + n, needle, 0, n)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + LONGS.vectorBitSize();
+    }
+}
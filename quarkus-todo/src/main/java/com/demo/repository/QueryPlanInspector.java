@@ -0,0 +1,91 @@
+package com.demo.repository;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Logs H2's EXPLAIN plan for each canonical findAll shape at startup so that
+ * a missing or unused index shows up in the boot log instead of in latency graphs.
+ */
+@ApplicationScoped
+public class QueryPlanInspector {
+
+    private static final Logger LOG = Logger.getLogger(QueryPlanInspector.class);
+
+    // SQL equivalents of the statements TodoRepository.findAll generates
+    static final Map<String, String> CANONICAL_QUERIES = new LinkedHashMap<>();
+
+    private static final Pattern INDEX_SORTED = Pattern.compile("index sorted(?:: (\\d+) of (\\d+) columns)?");
+
+    static {
+        CANONICAL_QUERIES.put("default",
+                "SELECT * FROM todos ORDER BY updated_at DESC, id DESC LIMIT 20");
+        CANONICAL_QUERIES.put("completed",
+                "SELECT * FROM todos WHERE completed = FALSE ORDER BY completed, updated_at DESC, id DESC LIMIT 20");
+        CANONICAL_QUERIES.put("cursor",
+                "SELECT * FROM todos WHERE updated_at < CURRENT_TIMESTAMP"
+                        + " OR (updated_at = CURRENT_TIMESTAMP AND id < RANDOM_UUID())"
+                        + " ORDER BY updated_at DESC, id DESC LIMIT 20");
+        CANONICAL_QUERIES.put("completed+cursor",
+                "SELECT * FROM todos WHERE completed = TRUE AND (updated_at < CURRENT_TIMESTAMP"
+                        + " OR (updated_at = CURRENT_TIMESTAMP AND id < RANDOM_UUID()))"
+                        + " ORDER BY completed, updated_at DESC, id DESC LIMIT 20");
+        // sort=updatedAt,asc: the default index read backwards, the filtered shape has its own
+        CANONICAL_QUERIES.put("asc",
+                "SELECT * FROM todos ORDER BY updated_at, id LIMIT 20");
+        CANONICAL_QUERIES.put("completed+asc",
+                "SELECT * FROM todos WHERE completed = FALSE ORDER BY completed, updated_at, id LIMIT 20");
+        // q filters the rows the index walk returns, it does not change the walk
+        CANONICAL_QUERIES.put("q",
+                "SELECT * FROM todos WHERE LOWER(title) LIKE '%report%'"
+                        + " ORDER BY updated_at DESC, id DESC LIMIT 20");
+        CANONICAL_QUERIES.put("completed+q",
+                "SELECT * FROM todos WHERE completed = FALSE AND LOWER(title) LIKE '%report%'"
+                        + " ORDER BY completed, updated_at DESC, id DESC LIMIT 20");
+    }
+
+    @Inject
+    EntityManager em;
+
+    @ConfigProperty(name = "todo.query-plan.log-on-startup", defaultValue = "true")
+    boolean logOnStartup;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (!logOnStartup) {
+            return;
+        }
+        CANONICAL_QUERIES.forEach(this::explain);
+    }
+
+    private void explain(String shape, String sql) {
+        try {
+            List<?> rows = em.createNativeQuery("EXPLAIN " + sql).getResultList();
+            String plan = rows.isEmpty() ? "" : String.valueOf(rows.get(0)).replaceAll("\\s+", " ");
+            if (usesIndexOrder(plan)) {
+                LOG.infof("QUERY_PLAN[%s] %s", shape, plan);
+            } else {
+                LOG.warnf("QUERY_PLAN[%s] is not index-ordered, check todos indexes: %s", shape, plan);
+            }
+        } catch (Exception e) {
+            LOG.warnf("QUERY_PLAN[%s] could not be explained: %s", shape, e.getMessage());
+        }
+    }
+
+    // H2 marks a partial sort "index sorted: 1 of 3 columns"; it still sorts the rows it reads
+    static boolean usesIndexOrder(String plan) {
+        Matcher sorted = INDEX_SORTED.matcher(plan);
+        return sorted.find() && (sorted.group(1) == null || sorted.group(1).equals(sorted.group(2)))
+                && !plan.contains("tableScan");
+    }
+}
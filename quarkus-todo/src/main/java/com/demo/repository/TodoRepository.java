@@ -1,19 +1,45 @@
 package com.demo.repository;
 
+import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoCursor;
 import com.demo.entity.Todo;
 import jakarta.enterprise.context.ApplicationScoped;
+import io.quarkus.narayana.jta.runtime.TransactionConfiguration;
+import jakarta.inject.Inject;
+import jakarta.persistence.Cache;
+import jakarta.persistence.CacheStoreMode;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class TodoRepository {
@@ -21,14 +47,90 @@ public class TodoRepository {
     @PersistenceContext
     EntityManager em;
 
+    @Inject
+    TransactionSynchronizationRegistry txRegistry;
+
     @Transactional
     public Todo save(Todo todo) {
         if (todo.getId() == null) {
             em.persist(todo);
             return todo;
         } else {
-            return em.merge(todo);
+            // Flush so @PreUpdate and the version increment are visible to the caller's response
+            Todo merged = em.merge(todo);
+            em.flush();
+            return merged;
+        }
+    }
+
+    /**
+     * Single-statement optimistic update: {@code UPDATE ... WHERE id = ? AND version = ?}.
+     * The pre-image comes back from H2's OLD TABLE delta in the same round trip, so the row is
+     * never read before it is written. Attributes mapped to null are set to NULL.
+     *
+     * @return the row as it was before the update, or empty if no row had that id and version
+     */
+    @Transactional
+    public Optional<Todo> updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values, Instant now) {
+        StringBuilder set = new StringBuilder();
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            String column = TodoRows.column(value.getKey());
+            set.append(column).append(value.getValue() == null ? " = NULL, " : " = :" + column + ", ");
+        }
+        set.append("updated_at = :now, version = version + 1");
+
+        Query query = TodoRows.scalars(em.createNativeQuery("SELECT " + TodoRows.COLUMNS
+                + " FROM OLD TABLE (UPDATE todos SET " + set + " WHERE id = :id AND version = :version)"));
+        values.forEach((attribute, value) -> {
+            if (value != null) {
+                query.setParameter(TodoRows.column(attribute), value);
+            }
+        });
+        query.setParameter("now", now);
+        query.setParameter("id", id);
+        query.setParameter("version", expectedVersion);
+
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
         }
+        evict(id);
+        return Optional.of(TodoRows.toTodo((Object[]) rows.get(0)));
+    }
+
+    public boolean exists(UUID id) {
+        return !em.createQuery("SELECT 1 FROM Todo t WHERE t.id = :id")
+                .setParameter("id", id)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    public Optional<Long> findVersion(UUID id) {
+        return em.createQuery("SELECT t.version FROM Todo t WHERE t.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /** Row counts per (completed, dueDate) in one aggregate scan; rows are [Boolean, LocalDate, Long]. */
+    public List<Object[]> countByCompletedAndDueDate() {
+        return em.createQuery("SELECT t.completed, t.dueDate, COUNT(t) FROM Todo t GROUP BY t.completed, t.dueDate",
+                        Object[].class)
+                .getResultList();
+    }
+
+    /**
+     * Inserts new todos as one JDBC batch (see statement-batch-size) and detaches them afterwards
+     * so large imports do not grow the persistence context.
+     */
+    @Transactional
+    public void persistAll(List<Todo> todos) {
+        for (Todo todo : todos) {
+            em.persist(todo);
+        }
+        em.flush();
+        em.clear();
     }
 
     public Optional<Todo> findById(UUID id) {
@@ -36,44 +138,210 @@ public class TodoRepository {
         return Optional.ofNullable(todo);
     }
 
-    public List<Todo> findAll(Boolean completed, String query, int page, int size, String sort) {
+    public List<Todo> findAll(Boolean completed, String query, TodoCursor cursor, int page, int size, String sort) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<Todo> cq = cb.createQuery(Todo.class);
         Root<Todo> root = cq.from(Todo.class);
+        return list(cq, root, completed, query, cursor, page, size, sort);
+    }
 
-        List<Predicate> predicates = new ArrayList<>();
+    /**
+     * Same rows and order as {@link #findAll}, but selects only the given attributes (plus the
+     * id/updatedAt keyset) so unrequested columns such as description are never read.
+     */
+    public List<Tuple> findAllProjected(Boolean completed, String query, TodoCursor cursor, int page, int size,
+                                        String sort, List<String> attributes) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<Todo> root = cq.from(Todo.class);
 
-        if (completed != null) {
-            predicates.add(cb.equal(root.get("completed"), completed));
-        }
+        Set<String> selected = new LinkedHashSet<>(attributes);
+        selected.add("id");
+        selected.add("updatedAt");
+        cq.multiselect(selected.stream()
+                .<Selection<?>>map(attribute -> root.get(attribute).alias(attribute))
+                .collect(Collectors.toList()));
 
-        if (query != null && !query.trim().isEmpty()) {
-            predicates.add(cb.like(cb.lower(root.get("title")), "%" + query.toLowerCase() + "%"));
+        return list(cq, root, completed, query, cursor, page, size, sort);
+    }
+
+    private <R> List<R> list(CriteriaQuery<R> cq, Root<Todo> root, Boolean completed, String query,
+                             TodoCursor cursor, int page, int size, String sort) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        List<Predicate> predicates = filterPredicates(cb, root, completed, query);
+
+        // Simple sorting (default: updatedAt desc), id breaks ties so the keyset is unique
+        boolean ascending = sort != null && sort.contains("updatedAt") && sort.contains("asc");
+
+        if (cursor != null) {
+            Path<Instant> updatedAt = root.get("updatedAt");
+            Path<UUID> id = root.get("id");
+            if (ascending) {
+                predicates.add(cb.or(
+                        cb.greaterThan(updatedAt, cursor.getUpdatedAt()),
+                        cb.and(cb.equal(updatedAt, cursor.getUpdatedAt()), cb.greaterThan(id, cursor.getId()))));
+            } else {
+                predicates.add(cb.or(
+                        cb.lessThan(updatedAt, cursor.getUpdatedAt()),
+                        cb.and(cb.equal(updatedAt, cursor.getUpdatedAt()), cb.lessThan(id, cursor.getId()))));
+            }
         }
 
         if (!predicates.isEmpty()) {
             cq.where(predicates.toArray(new Predicate[0]));
         }
 
-        // Simple sorting (default: updatedAt desc)
-        if (sort != null && sort.contains("updatedAt")) {
-            if (sort.contains("asc")) {
-                cq.orderBy(cb.asc(root.get("updatedAt")));
-            } else {
-                cq.orderBy(cb.desc(root.get("updatedAt")));
-            }
-        } else {
-            cq.orderBy(cb.desc(root.get("updatedAt")));
-        }
+        cq.orderBy(listOrder(cb, root, completed, ascending));
 
+        // A cursor already positions the page, so it is always a bounded seek without OFFSET
         return em.createQuery(cq)
-                .setFirstResult(page * size)
+                .setFirstResult(cursor != null ? 0 : page * size)
                 .setMaxResults(size)
                 .getResultList();
     }
 
+    /**
+     * (updatedAt, id) in the given direction, led by completed when the list is filtered on it.
+     * The filter pins completed to one value, so the lead key leaves the row order unchanged,
+     * but H2 only reads the completed indexes in order (no sort step) when ORDER BY starts with
+     * their leading column. Each keyset direction has its own index: H2 2.3 reads an index
+     * backwards, but returns no rows when it does so under an equality on the leading column.
+     */
+    private static List<Order> listOrder(CriteriaBuilder cb, Root<Todo> root, Boolean completed, boolean ascending) {
+        List<Order> order = new ArrayList<>(3);
+        if (completed != null) {
+            order.add(cb.asc(root.get("completed")));
+        }
+        order.add(ascending ? cb.asc(root.get("updatedAt")) : cb.desc(root.get("updatedAt")));
+        order.add(ascending ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+        return order;
+    }
+
+    /**
+     * Streams the todos matching the findAll filters, newest updatedAt first, to {@code action}
+     * from one read-only cursor fetching {@code fetchSize} rows per round trip. Each row is
+     * detached before it is passed on and bypasses the second-level cache, so memory stays flat
+     * however many rows there are. The transaction and its connection stay open until the scan
+     * ends, for at most {@code todo.export.transaction-timeout} seconds.
+     */
     @Transactional
-    public void delete(Todo todo) {
-        em.remove(em.contains(todo) ? todo : em.merge(todo));
+    @TransactionConfiguration(timeoutFromConfigProperty = "todo.export.transaction-timeout")
+    public void streamAll(Boolean completed, String query, int fetchSize, Consumer<Todo> action) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Todo> cq = cb.createQuery(Todo.class);
+        Root<Todo> root = cq.from(Todo.class);
+
+        List<Predicate> predicates = filterPredicates(cb, root, completed, query);
+        if (!predicates.isEmpty()) {
+            cq.where(predicates.toArray(new Predicate[0]));
+        }
+        cq.orderBy(listOrder(cb, root, completed, false));
+
+        try (Stream<Todo> rows = em.createQuery(cq)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                // A full scan would push the hot todos out of the second-level cache
+                .setHint(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS)
+                .getResultStream()) {
+            rows.forEach(todo -> {
+                em.detach(todo);
+                action.accept(todo);
+            });
+        }
+    }
+
+    /**
+     * Applies the non-null fields of {@code changes} to every todo matching the findAll filters
+     * in a single UPDATE statement.
+     */
+    @Transactional
+    public int updateAll(Boolean completed, String query, PatchTodoRequest changes) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaUpdate<Todo> cu = cb.createCriteriaUpdate(Todo.class);
+        Root<Todo> root = cu.from(Todo.class);
+
+        if (changes.getTitle() != null) {
+            cu.set(root.<String>get("title"), changes.getTitle());
+        }
+        if (changes.getDescription() != null) {
+            cu.set(root.<String>get("description"), changes.getDescription());
+        }
+        if (changes.getCompleted() != null) {
+            cu.set(root.<Boolean>get("completed"), changes.getCompleted());
+        }
+        if (changes.getDueDate() != null) {
+            cu.set(root.<LocalDate>get("dueDate"), changes.getDueDate());
+        }
+        cu.set(root.<Instant>get("updatedAt"), Instant.now().truncatedTo(ChronoUnit.MICROS));
+        cu.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+        cu.where(filterPredicates(cb, root, completed, query).toArray(new Predicate[0]));
+
+        return em.createQuery(cu).executeUpdate();
+    }
+
+    /**
+     * Deletes every todo matching the findAll filters in a single DELETE statement.
+     */
+    @Transactional
+    public int deleteAll(Boolean completed, String query) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaDelete<Todo> cd = cb.createCriteriaDelete(Todo.class);
+        Root<Todo> root = cd.from(Todo.class);
+        cd.where(filterPredicates(cb, root, completed, query).toArray(new Predicate[0]));
+
+        return em.createQuery(cd).executeUpdate();
+    }
+
+    /**
+     * Load-free delete: a single {@code DELETE FROM todos WHERE id = ?}. The removed row comes
+     * back from H2's OLD TABLE delta in the same round trip, so callers still learn its final state.
+     *
+     * @return the deleted row, or empty if no row had that id
+     */
+    @Transactional
+    public Optional<Todo> deleteReturning(UUID id) {
+        List<?> rows = TodoRows.scalars(em.createNativeQuery("SELECT " + TodoRows.COLUMNS
+                        + " FROM OLD TABLE (DELETE FROM todos WHERE id = :id)"))
+                .setParameter("id", id)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        evict(id);
+        return Optional.of(TodoRows.toTodo((Object[]) rows.get(0)));
+    }
+
+    /**
+     * Drops a row written by native SQL from the second-level cache, now and again once the
+     * transaction completes so a concurrent reader cannot re-cache the old state in between.
+     */
+    private void evict(UUID id) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        cache.evict(Todo.class, id);
+        txRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                cache.evict(Todo.class, id);
+            }
+        });
+    }
+
+    // Shared by findAll and the bulk operations so both always select the same rows
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Todo> root, Boolean completed, String query) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (completed != null) {
+            predicates.add(cb.equal(root.get("completed"), completed));
+        }
+
+        if (query != null && !query.trim().isEmpty()) {
+            predicates.add(cb.like(cb.lower(root.get("title")), "%" + query.toLowerCase() + "%"));
+        }
+
+        return predicates;
     }
 }
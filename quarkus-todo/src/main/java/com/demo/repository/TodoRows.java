@@ -0,0 +1,57 @@
+package com.demo.repository;
+
+import com.demo.entity.Todo;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Scalar mapping for native statements that return todos rows, such as H2's
+ * OLD TABLE / FINAL TABLE delta tables. Rows are read as plain values so the
+ * persistence context and second-level cache are never populated from them.
+ */
+final class TodoRows {
+
+    static final String COLUMNS = "id, title, description, completed, due_date, created_at, updated_at, version";
+
+    // Query space that matches no entity, so native DML does not invalidate whole cache regions
+    static final String DML_QUERY_SPACE = "todos_dml";
+
+    private TodoRows() {
+    }
+
+    static Query scalars(Query query) {
+        query.unwrap(NativeQuery.class)
+                .addScalar("id", UUID.class)
+                .addScalar("title", String.class)
+                .addScalar("description", String.class)
+                .addScalar("completed", Boolean.class)
+                .addScalar("due_date", LocalDate.class)
+                .addScalar("created_at", Instant.class)
+                .addScalar("updated_at", Instant.class)
+                .addScalar("version", Long.class)
+                .addSynchronizedQuerySpace(DML_QUERY_SPACE);
+        return query;
+    }
+
+    // Column for a writable Todo attribute; only dueDate is named differently
+    static String column(String attribute) {
+        return "dueDate".equals(attribute) ? "due_date" : attribute;
+    }
+
+    static Todo toTodo(Object[] row) {
+        Todo todo = new Todo();
+        todo.setId((UUID) row[0]);
+        todo.setTitle((String) row[1]);
+        todo.setDescription((String) row[2]);
+        todo.setCompleted((Boolean) row[3]);
+        todo.setDueDate((LocalDate) row[4]);
+        todo.setCreatedAt((Instant) row[5]);
+        todo.setUpdatedAt((Instant) row[6]);
+        todo.setVersion((Long) row[7]);
+        return todo;
+    }
+}
@@ -0,0 +1,140 @@
+package com.demo.service;
+
+import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Merges concurrent unconditional PATCHes of the same todo into one write.
+ *
+ * <p>Writes are serialized per id through a fixed set of lock stripes. A PATCH that arrives while
+ * a write for its id is queued but not yet started joins that write instead of queueing its own:
+ * its non-null fields are laid over the ones already collected (last writer wins per field, null
+ * still means untouched), and every caller gets the same result, the todo after the merged write,
+ * or the same error. The outcome is one of the states serial execution in arrival order could
+ * have produced, with one load, one UPDATE and one version bump for the whole batch.
+ *
+ * <p>PATCHes with If-Match are not coalesced: each must be checked against its own version.
+ * {@code todo.patch.coalesce.size} records how many requests each write carried, so its sum over
+ * its count is the coalescing ratio.
+ */
+@ApplicationScoped
+public class PatchCoalescer {
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "todo.patch.coalesce.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "todo.patch.coalesce.stripes", defaultValue = "64")
+    int stripeCount;
+
+    private final Map<UUID, Batch> open = new ConcurrentHashMap<>();
+    private ReentrantLock[] stripes;
+    private DistributionSummary batchSizes;
+
+    @PostConstruct
+    void init() {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        batchSizes = DistributionSummary.builder("todo.patch.coalesce.size")
+                .description("PATCH requests applied by one write")
+                .register(registry);
+    }
+
+    /**
+     * Applies {@code request} to todo {@code id} through {@code write}, possibly merged with
+     * concurrent requests for the same id.
+     */
+    public TodoResponse patch(UUID id, PatchTodoRequest request, Function<PatchTodoRequest, TodoResponse> write) {
+        if (!enabled) {
+            return write.apply(request);
+        }
+        Batch[] joined = new Batch[1];
+        Batch batch = open.compute(id, (key, pending) -> {
+            if (pending != null) {
+                pending.merge(request);
+                joined[0] = pending;
+                return pending;
+            }
+            return new Batch(request);
+        });
+        if (joined[0] != null) {
+            return batch.await();
+        }
+
+        ReentrantLock stripe = stripes[Math.floorMod(id.hashCode(), stripes.length)];
+        stripe.lock();
+        try {
+            // Closed from here on: later arrivals start the next batch for this id
+            open.remove(id, batch);
+            batchSizes.record(batch.requests);
+            try {
+                batch.result.complete(write.apply(batch.merged));
+            } catch (RuntimeException | Error e) {
+                batch.result.completeExceptionally(e);
+            }
+        } finally {
+            stripe.unlock();
+        }
+        return batch.await();
+    }
+
+    private static final class Batch {
+
+        // Only changed inside ConcurrentHashMap.compute while the batch is open
+        private final PatchTodoRequest merged = new PatchTodoRequest();
+        private int requests;
+        private final CompletableFuture<TodoResponse> result = new CompletableFuture<>();
+
+        Batch(PatchTodoRequest first) {
+            merge(first);
+        }
+
+        void merge(PatchTodoRequest request) {
+            if (request.getTitle() != null) {
+                merged.setTitle(request.getTitle());
+            }
+            if (request.getDescription() != null) {
+                merged.setDescription(request.getDescription());
+            }
+            if (request.getCompleted() != null) {
+                merged.setCompleted(request.getCompleted());
+            }
+            if (request.getDueDate() != null) {
+                merged.setDueDate(request.getDueDate());
+            }
+            requests++;
+        }
+
+        TodoResponse await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
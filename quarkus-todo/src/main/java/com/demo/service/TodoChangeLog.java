@@ -0,0 +1,200 @@
+package com.demo.service;
+
+import com.demo.dto.TodoChangesResponse;
+import com.demo.dto.TodoResponse;
+import com.demo.event.TodoChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compacted log of committed todo changes behind GET /api/todos/changes.
+ *
+ * <p>Every committed write takes the next number of a monotonic sequence and replaces the
+ * log entry of its todo, so the log holds one entry per todo changed since the oldest retained
+ * change: its latest state, or a tombstone once deleted. A change token is a position in that
+ * sequence; reading since a token walks only the entries after it. The log keeps at most
+ * {@code todo.changes.max-entries} entries and drops the oldest beyond that. Tokens older than
+ * a dropped entry, tokens from before a bulk write (whose rows are not known) and tokens from
+ * another run of the process are expired, and their holders reload the list.
+ */
+@ApplicationScoped
+public class TodoChangeLog {
+
+    private static final char SEPARATOR = '.';
+
+    private record Change(UUID id, TodoResponse after) {
+
+        boolean isTombstone() {
+            return after == null;
+        }
+    }
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "todo.changes.max-entries", defaultValue = "100000")
+    int maxEntries;
+
+    // Sequence numbers of another run mean nothing here
+    private final String epoch = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+
+    private final ConcurrentSkipListMap<Long, Change> bySeq = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock
+    private final Map<UUID, Long> seqById = new HashMap<>();
+    private long seq;
+
+    // Last sequence number taken; its entry is in bySeq before this moves
+    private volatile long head;
+    // Changes up to this sequence number may have been dropped
+    private volatile long horizon;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("todo.changes.entries", bySeq, Map::size).register(registry);
+    }
+
+    // Last, after the read model and list cache at default priority, so every list read after the
+    // position moved already sees the change (see position)
+    void onTodoChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) @Priority(Interceptor.Priority.PLATFORM_AFTER)
+                       TodoChangedEvent event) {
+        lock.lock();
+        try {
+            if (event.getType() == TodoChangedEvent.Type.BULK) {
+                bySeq.clear();
+                seqById.clear();
+                horizon = ++seq;
+                head = seq;
+                return;
+            }
+            append(event.getId(), event.getAfter());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(UUID id, TodoResponse after) {
+        Long previousSeq = seqById.get(id);
+        if (previousSeq != null) {
+            Change previous = bySeq.get(previousSeq);
+            // Observers of two commits can run out of order; ids are never reused after a delete
+            if (previous.isTombstone() || (after != null && isOlder(after, previous.after()))) {
+                return;
+            }
+            bySeq.remove(previousSeq);
+        }
+        long next = ++seq;
+        bySeq.put(next, new Change(id, after));
+        seqById.put(id, next);
+        head = next;
+
+        while (seqById.size() > maxEntries) {
+            Map.Entry<Long, Change> oldest = bySeq.pollFirstEntry();
+            seqById.remove(oldest.getValue().id());
+            horizon = oldest.getKey();
+        }
+    }
+
+    private static boolean isOlder(TodoResponse state, TodoResponse than) {
+        return state.getVersion() != null && than.getVersion() != null && state.getVersion() < than.getVersion();
+    }
+
+    /**
+     * Current position in the sequence. It moves with every committed write, after the other
+     * listeners have seen it, so a list read after taking the position is at least as new as the
+     * position: read it before the list, never after.
+     */
+    public String position() {
+        return epoch + SEPARATOR + head;
+    }
+
+    /**
+     * Up to {@code limit} todos changed after {@code token}, each once in its latest state, and
+     * the token to continue from. Without a token only the current token is returned. Fails with
+     * 400 for a malformed token and 410 for an expired one.
+     */
+    public TodoChangesResponse since(String token, int limit) {
+        long end = head;
+        if (token == null || token.isBlank()) {
+            return new TodoChangesResponse(List.of(), List.of(), encode(end), false);
+        }
+        long since = decode(token);
+        checkRetained(since, end);
+
+        Map<UUID, Change> latest = new LinkedHashMap<>();
+        long last = since;
+        boolean more = false;
+        for (Map.Entry<Long, Change> entry : bySeq.tailMap(since, false).entrySet()) {
+            if (latest.size() == limit) {
+                more = true;
+                break;
+            }
+            // A todo changed again during the walk shows up twice; the later entry wins
+            Change change = entry.getValue();
+            latest.remove(change.id());
+            latest.put(change.id(), change);
+            last = entry.getKey();
+        }
+        // Entries dropped while walking were not seen
+        checkRetained(since, end);
+
+        List<TodoResponse> changed = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        for (Change change : latest.values()) {
+            if (change.isTombstone()) {
+                deleted.add(change.id());
+            } else {
+                changed.add(change.after());
+            }
+        }
+        return new TodoChangesResponse(changed, deleted, encode(more ? last : Math.max(last, end)), more);
+    }
+
+    private void checkRetained(long since, long end) {
+        if (since < horizon || since > end) {
+            throw new ClientErrorException("Change token expired, reload the list", Response.Status.GONE);
+        }
+    }
+
+    private String encode(long position) {
+        String raw = epoch + SEPARATOR + position;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long decode(String token) {
+        String raw;
+        long position;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            position = Long.parseLong(raw.substring(raw.indexOf(SEPARATOR) + 1));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid change token: " + token);
+        }
+        if (!raw.startsWith(epoch + SEPARATOR)) {
+            throw new ClientErrorException("Change token expired, reload the list", Response.Status.GONE);
+        }
+        return position;
+    }
+}
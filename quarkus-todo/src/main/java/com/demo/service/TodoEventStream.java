@@ -0,0 +1,230 @@
+package com.demo.service;
+
+import com.demo.event.TodoChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fan-out of committed todo changes to GET /api/todos/stream subscribers.
+ *
+ * <p>The commit observer only offers the change to one bounded queue, so a write never waits for
+ * subscribers. A dispatcher thread copies each change into every subscriber's own bounded queue,
+ * and each subscriber has a virtual thread writing its queue to the connection, so a slow client
+ * holds up only itself. When a subscriber's queue is full, its backlog is dropped and replaced by
+ * one {@code resync} event: the client has missed changes and must reload the list. Bulk writes,
+ * whose rows are not known, and an overflow of the dispatch queue resync every subscriber. An
+ * overflow only raises a flag; the dispatcher, the one thread that takes from the queue, drops
+ * the backlog and sends the resync, so committers never race each other clearing the queue.
+ */
+@ApplicationScoped
+public class TodoEventStream {
+
+    private static final Logger LOG = Logger.getLogger(TodoEventStream.class);
+
+    // Changes accepted from commits but not yet fanned out
+    private static final int DISPATCH_CAPACITY = 4096;
+
+    /** Writes events to one client connection; calls block until the bytes are handed to it. */
+    public interface Sink {
+
+        void send(String name, Object data) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    private static final Change RESYNC = new Change("resync", Map.of());
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "todo.stream.max-subscribers", defaultValue = "1000")
+    int maxSubscribers;
+
+    @ConfigProperty(name = "todo.stream.subscriber-buffer", defaultValue = "256")
+    int subscriberBuffer;
+
+    @ConfigProperty(name = "todo.stream.heartbeat", defaultValue = "15s")
+    Duration heartbeat;
+
+    private final BlockingQueue<Change> dispatch = new ArrayBlockingQueue<>(DISPATCH_CAPACITY);
+    // Set when a change did not fit in dispatch; cleared by the dispatcher as it resyncs everyone
+    private final AtomicBoolean dispatchOverflowed = new AtomicBoolean();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Slots taken in subscribers, reserved before the add so concurrent connects cannot pass the limit
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private Counter resyncs;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    void onStart(@Observes StartupEvent ev) {
+        resyncs = registry.counter("todo.stream.resyncs");
+        Gauge.builder("todo.stream.subscribers", subscribers, Set::size).register(registry);
+        running = true;
+        dispatcher = Thread.ofPlatform().name("todo-stream-dispatch").daemon().start(this::dispatch);
+    }
+
+    void onStop(@Observes ShutdownEvent ev) throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.cancel();
+        }
+    }
+
+    /**
+     * Starts streaming changes committed from now on to {@code sink}; the returned handle stops it.
+     * Fails with 503 when {@code todo.stream.max-subscribers} are already connected.
+     */
+    public Runnable subscribe(Sink sink) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many stream subscribers");
+        }
+        Subscriber subscriber = new Subscriber(sink, subscriberBuffer);
+        subscribers.add(subscriber);
+        subscriber.writer = Thread.ofVirtual().name("todo-stream-subscriber").start(subscriber::write);
+        return subscriber::cancel;
+    }
+
+    void onTodoChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) TodoChangedEvent event) {
+        Change change = switch (event.getType()) {
+            case CREATED -> new Change("created", event.getAfter());
+            case UPDATED -> new Change("updated", event.getAfter());
+            case DELETED -> new Change("deleted", Map.of("id", event.getId()));
+            case BULK -> RESYNC;
+        };
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (!dispatch.offer(change)) {
+            // The dispatcher itself fell behind: nobody can be told exactly what they missed
+            dispatchOverflowed.set(true);
+            // Wakes the dispatcher in case it emptied the queue since; when full, it is awake anyway
+            dispatch.offer(RESYNC);
+        }
+    }
+
+    private void dispatch() {
+        while (running) {
+            Change change;
+            try {
+                change = dispatch.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (dispatchOverflowed.getAndSet(false)) {
+                // Everything still queued is older than the reload the resync asks for
+                dispatch.clear();
+                change = RESYNC;
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    private final class Subscriber {
+
+        private final Sink sink;
+        private final BlockingQueue<Change> queue;
+        // Not synchronized, which would pin a virtual thread to its carrier while it waits
+        private final ReentrantLock resyncLock = new ReentrantLock();
+        private volatile boolean open = true;
+        private volatile Thread writer;
+
+        Subscriber(Sink sink, int capacity) {
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void offer(Change change) {
+            if (change == RESYNC) {
+                resync();
+            } else if (!queue.offer(change)) {
+                resync();
+            }
+        }
+
+        // Whatever is still queued is superseded by the reload the client does on resync
+        private void resync() {
+            resyncLock.lock();
+            try {
+                // Still unsent means the client has read nothing since: same resync, not a new one
+                if (queue.peek() != RESYNC) {
+                    resyncs.increment();
+                }
+                queue.clear();
+                queue.offer(RESYNC);
+            } finally {
+                resyncLock.unlock();
+            }
+        }
+
+        void write() {
+            try {
+                while (open) {
+                    Change change = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (change == null) {
+                        // Also how a client that went away is noticed while nothing changes
+                        sink.heartbeat();
+                    } else {
+                        sink.send(change.name, change.data);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // cancelled
+            } catch (IOException | RuntimeException e) {
+                LOG.debugf("Stream subscriber disconnected: %s", e);
+            } finally {
+                remove();
+                sink.close();
+            }
+        }
+
+        void cancel() {
+            open = false;
+            remove();
+            Thread thread = writer;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+
+        // Both the writer and cancel end a subscription; only the first frees its slot
+        private void remove() {
+            if (subscribers.remove(this)) {
+                subscriberCount.decrementAndGet();
+            }
+        }
+    }
+
+    private record Change(String name, Object data) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.demo.service;
+
+import com.demo.dto.TodoCursor;
+import com.demo.dto.TodoResponse;
+import com.demo.dto.TodoSlice;
+import com.demo.event.TodoChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for list pages, keyed by the normalized query parameters and projection.
+ *
+ * <p>Entries are never flushed eagerly. Each key carries the generation of the
+ * {@code completed} partition it reads, and a committed write bumps only the
+ * partitions it can affect, so stale entries simply stop matching. Concurrent
+ * misses for the same key share one in-flight load.
+ */
+@ApplicationScoped
+public class TodoListCache {
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "todo.list-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "todo.list-cache.max-entries", defaultValue = "1000")
+    int maxEntries;
+
+    // Generations for lists filtered by completed=null, completed=true and completed=false
+    private final AtomicLong allGeneration = new AtomicLong();
+    private final AtomicLong completedGeneration = new AtomicLong();
+    private final AtomicLong openGeneration = new AtomicLong();
+
+    private final Map<Key, CompletableFuture<TodoSlice<?>>> entries = new ConcurrentHashMap<>();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter coalesced;
+
+    @PostConstruct
+    void init() {
+        hits = registry.counter("todo.list.cache", "result", "hit");
+        misses = registry.counter("todo.list.cache", "result", "miss");
+        coalesced = registry.counter("todo.list.cache", "result", "coalesced");
+        Gauge.builder("todo.list.cache.size", entries, Map::size).register(registry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> TodoSlice<T> get(Boolean completed, String query, TodoCursor cursor, int page, int size, String sort,
+                                List<String> fields, Supplier<TodoSlice<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(completed, normalizeQuery(query), cursor != null ? cursor.encode() : null,
+                cursor != null ? 0 : page, size, isAscending(sort), fields, generation(completed).get());
+
+        CompletableFuture<TodoSlice<?>> cached = entries.get(key);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            hits.increment();
+            return (TodoSlice<T>) cached.join();
+        }
+
+        CompletableFuture<TodoSlice<?>> mine = new CompletableFuture<>();
+        CompletableFuture<TodoSlice<?>> inFlight = entries.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            coalesced.increment();
+            return (TodoSlice<T>) await(inFlight);
+        }
+
+        misses.increment();
+        try {
+            TodoSlice<T> loaded = loader.get();
+            mine.complete(loaded);
+            trim();
+            return loaded;
+        } catch (RuntimeException e) {
+            entries.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    void onTodoChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) TodoChangedEvent event) {
+        allGeneration.incrementAndGet();
+        if (event.getType() == TodoChangedEvent.Type.BULK) {
+            completedGeneration.incrementAndGet();
+            openGeneration.incrementAndGet();
+            return;
+        }
+        bump(event.getBefore());
+        bump(event.getAfter());
+        if (event.getType() == TodoChangedEvent.Type.DELETED && event.getBefore() == null) {
+            // Prior state unknown: either partition may have lost a row
+            completedGeneration.incrementAndGet();
+            openGeneration.incrementAndGet();
+        }
+    }
+
+    private void bump(TodoResponse state) {
+        if (state != null && state.getCompleted() != null) {
+            generation(state.getCompleted()).incrementAndGet();
+        }
+    }
+
+    private AtomicLong generation(Boolean completed) {
+        if (completed == null) {
+            return allGeneration;
+        }
+        return completed ? completedGeneration : openGeneration;
+    }
+
+    private void trim() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.keySet().removeIf(key -> key.generation != generation(key.completed).get());
+        if (entries.size() > maxEntries) {
+            entries.clear();
+        }
+    }
+
+    private static TodoSlice<?> await(CompletableFuture<TodoSlice<?>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String normalizeQuery(String query) {
+        return query == null || query.trim().isEmpty() ? null : query.toLowerCase();
+    }
+
+    private static boolean isAscending(String sort) {
+        return sort != null && sort.contains("updatedAt") && sort.contains("asc");
+    }
+
+    private record Key(Boolean completed, String query, String cursor, int page, int size, boolean ascending,
+                       List<String> fields, long generation) {
+    }
+}
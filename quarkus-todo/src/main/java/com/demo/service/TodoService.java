@@ -1,70 +1,484 @@
 package com.demo.service;
 
+import com.demo.dto.BatchCreateResponse;
+import com.demo.dto.BatchItemError;
 import com.demo.dto.CreateTodoRequest;
 import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoChangesResponse;
+import com.demo.dto.TodoCursor;
+import com.demo.dto.TodoImportResponse;
 import com.demo.dto.TodoResponse;
+import com.demo.dto.TodoSlice;
+import com.demo.dto.TodoStatsResponse;
 import com.demo.dto.UpdateTodoRequest;
+import com.demo.entity.TimeOrderedUuid;
 import com.demo.entity.Todo;
-import com.demo.repository.TodoRepository;
+import com.demo.event.TodoChangedEvent;
+import com.demo.readmodel.TodoReadModel;
+import com.demo.store.TodoStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
 import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class TodoService {
 
+    private static final Logger LOG = Logger.getLogger(TodoService.class);
+
     @Inject
-    TodoRepository todoRepository;
+    TodoStore todoStore;
+
+    @Inject
+    TodoListCache listCache;
+
+    @Inject
+    TodoStats stats;
+
+    @Inject
+    Event<TodoChangedEvent> todoChanged;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    GroupCommitter writes;
+
+    @Inject
+    PatchCoalescer patches;
+
+    @Inject
+    TodoReadModel readModel;
+
+    @Inject
+    TodoEventStream eventStream;
+
+    @Inject
+    TodoChangeLog changeLog;
+
+    @ConfigProperty(name = "todo.batch.max-items", defaultValue = "10000")
+    int batchMaxItems;
+
+    @ConfigProperty(name = "todo.batch.chunk-size", defaultValue = "500")
+    int batchChunkSize;
+
+    @ConfigProperty(name = "todo.import.queue-chunks", defaultValue = "4")
+    int importQueueChunks;
+
+    @ConfigProperty(name = "todo.import.max-errors", defaultValue = "1000")
+    int importMaxErrors;
+
+    @ConfigProperty(name = "todo.import.progress-interval", defaultValue = "100000")
+    long importProgressInterval;
+
+    /** One record of an import upload: its line number and the request, or why it did not parse. */
+    public record ImportRow(int line, CreateTodoRequest request, String error) {
+    }
+
+    // Single-todo writes run through GroupCommitter, which owns their transaction (todo.write.durability)
 
-    @Transactional
     public TodoResponse create(CreateTodoRequest request) {
-        Todo todo = new Todo();
-        todo.setTitle(request.getTitle());
-        todo.setDescription(request.getDescription());
-        todo.setCompleted(request.getCompleted() != null ? request.getCompleted() : false);
-        todo.setDueDate(request.getDueDate());
+        // Chosen up front so a write rerun after a failed group keeps the id
+        UUID id = TimeOrderedUuid.next();
+        return writes.execute(() -> {
+            Todo todo = toEntity(request);
+            todo.setId(id);
 
-        todo = todoRepository.save(todo);
-        return new TodoResponse(todo);
+            todo = todoStore.insert(todo);
+            TodoResponse response = new TodoResponse(todo);
+            todoChanged.fire(TodoChangedEvent.created(response));
+            return response;
+        });
+    }
+
+    /**
+     * Validates every item, then inserts the valid ones in chunked transactions. A rejected item
+     * or a failed chunk is reported per index and does not abort the rest of the batch.
+     */
+    public BatchCreateResponse createBatch(List<CreateTodoRequest> requests) {
+        if (requests.size() > batchMaxItems) {
+            throw new BadRequestException("Batch must not exceed " + batchMaxItems + " items");
+        }
+        UUID[] ids = new UUID[requests.size()];
+        List<BatchItemError> errors = new ArrayList<>();
+        List<Integer> valid = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            CreateTodoRequest request = requests.get(i);
+            if (request == null) {
+                errors.add(new BatchItemError(i, List.of("Malformed item")));
+                continue;
+            }
+            List<String> violations = violations(request);
+            if (violations.isEmpty()) {
+                valid.add(i);
+            } else {
+                errors.add(new BatchItemError(i, violations));
+            }
+        }
+
+        int created = 0;
+        for (int from = 0; from < valid.size(); from += batchChunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + batchChunkSize, valid.size()));
+            try {
+                List<Todo> todos = QuarkusTransaction.requiringNew().call(() -> insertChunk(requests, chunk));
+                for (int i = 0; i < chunk.size(); i++) {
+                    ids[chunk.get(i)] = todos.get(i).getId();
+                }
+                created += chunk.size();
+            } catch (RuntimeException e) {
+                for (Integer index : chunk) {
+                    errors.add(new BatchItemError(index, List.of("Insert failed: " + e.getMessage())));
+                }
+            }
+        }
+
+        errors.sort(Comparator.comparingInt(BatchItemError::getIndex));
+        return new BatchCreateResponse(Arrays.asList(ids), created, errors);
     }
 
-    public List<TodoResponse> findAll(Boolean completed, String query, int page, int size, String sort) {
-        return todoRepository.findAll(completed, query, page, size, sort)
-                .stream()
-                .map(TodoResponse::new)
+    private List<String> violations(CreateTodoRequest request) {
+        Set<ConstraintViolation<CreateTodoRequest>> violations = validator.validate(request);
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
                 .collect(Collectors.toList());
     }
 
+    private List<Todo> insertChunk(List<CreateTodoRequest> requests, List<Integer> chunk) {
+        return insertAll(chunk.stream().map(requests::get).collect(Collectors.toList()));
+    }
+
+    private List<Todo> insertAll(List<CreateTodoRequest> requests) {
+        List<Todo> todos = new ArrayList<>(requests.size());
+        for (CreateTodoRequest request : requests) {
+            todos.add(toEntity(request));
+        }
+        todoStore.insertAll(todos);
+        for (Todo todo : todos) {
+            todoChanged.fire(TodoChangedEvent.created(new TodoResponse(todo)));
+        }
+        return todos;
+    }
+
+    /**
+     * Validates rows as they are read and hands the valid ones, in chunks of
+     * {@code todo.batch.chunk-size}, to a second thread that inserts each chunk in one transaction,
+     * so reading the upload overlaps the inserts. At most {@code todo.import.queue-chunks} chunks
+     * wait for that thread; beyond that reading stops and the rest of the upload stays unread in
+     * the connection instead of in memory. Rejected rows and the rows of a failed chunk are
+     * reported by line and do not stop the import.
+     */
+    public TodoImportResponse importTodos(Iterator<ImportRow> rows) {
+        ImportProgress progress = new ImportProgress(importMaxErrors, importProgressInterval);
+        // An empty chunk ends the import
+        BlockingQueue<List<ImportRow>> chunks = new ArrayBlockingQueue<>(importQueueChunks);
+        Thread inserter = Thread.ofVirtual().name("todo-import").start(() -> insertChunks(chunks, progress));
+        try {
+            List<ImportRow> chunk = new ArrayList<>(batchChunkSize);
+            while (rows.hasNext()) {
+                ImportRow row = rows.next();
+                progress.read();
+                List<String> violations = row.request() == null ? List.of(row.error()) : violations(row.request());
+                if (!violations.isEmpty()) {
+                    progress.failed(row.line(), violations);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == batchChunkSize) {
+                    enqueue(chunks, chunk);
+                    chunk = new ArrayList<>(batchChunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                enqueue(chunks, chunk);
+            }
+        } finally {
+            enqueue(chunks, List.of());
+            try {
+                inserter.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return progress.finish();
+    }
+
+    private void insertChunks(BlockingQueue<List<ImportRow>> chunks, ImportProgress progress) {
+        while (true) {
+            List<ImportRow> chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                QuarkusTransaction.requiringNew().run(() ->
+                        insertAll(chunk.stream().map(ImportRow::request).collect(Collectors.toList())));
+                progress.imported(chunk.size());
+            } catch (RuntimeException e) {
+                for (ImportRow row : chunk) {
+                    progress.failed(row.line(), List.of("Insert failed: " + e.getMessage()));
+                }
+            }
+        }
+    }
+
+    private static void enqueue(BlockingQueue<List<ImportRow>> chunks, List<ImportRow> chunk) {
+        try {
+            chunks.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing import rows", e);
+        }
+    }
+
+    public TodoSlice<TodoResponse> findAll(Boolean completed, String query, TodoCursor cursor, int page, int size, String sort) {
+        return listCache.get(completed, query, cursor, page, size, sort, null,
+                () -> loadPage(completed, query, cursor, page, size, sort));
+    }
+
+    /**
+     * List variant for the {@code fields} parameter: only the requested attributes are selected
+     * and each row carries only those keys.
+     */
+    public TodoSlice<Map<String, Object>> findAllProjected(Boolean completed, String query, TodoCursor cursor,
+                                                           int page, int size, String sort, List<String> fields) {
+        return listCache.get(completed, query, cursor, page, size, sort, fields,
+                () -> loadProjectedPage(completed, query, cursor, page, size, sort, fields));
+    }
+
+    private TodoSlice<TodoResponse> loadPage(Boolean completed, String query, TodoCursor cursor, int page, int size, String sort) {
+        List<TodoResponse> items = readModel.findAll(completed, query, cursor, page, size, sort)
+                .orElseGet(() -> todoStore.findAll(completed, query, cursor, page, size, sort).stream()
+                        .map(TodoResponse::new)
+                        .collect(Collectors.toList()));
+        String nextCursor = items.size() == size && size > 0
+                ? TodoCursor.after(items.get(items.size() - 1)).encode()
+                : null;
+        return new TodoSlice<>(items, nextCursor);
+    }
+
+    private TodoSlice<Map<String, Object>> loadProjectedPage(Boolean completed, String query, TodoCursor cursor,
+                                                             int page, int size, String sort, List<String> fields) {
+        List<TodoResponse> served = readModel.findAll(completed, query, cursor, page, size, sort).orElse(null);
+        if (served != null) {
+            List<Map<String, Object>> items = new ArrayList<>(served.size());
+            for (TodoResponse todo : served) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                for (String field : fields) {
+                    item.put(field, attribute(todo, field));
+                }
+                items.add(item);
+            }
+            String nextCursor = served.size() == size && size > 0
+                    ? TodoCursor.after(served.get(served.size() - 1)).encode()
+                    : null;
+            return new TodoSlice<>(items, nextCursor);
+        }
+
+        List<Map<String, Object>> rows = todoStore.findAllProjected(completed, query, cursor, page, size, sort, fields);
+        List<Map<String, Object>> items = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String field : fields) {
+                item.put(field, row.get(field));
+            }
+            items.add(item);
+        }
+        String nextCursor = null;
+        if (rows.size() == size && size > 0) {
+            Map<String, Object> last = rows.get(rows.size() - 1);
+            nextCursor = new TodoCursor((Instant) last.get("updatedAt"), (UUID) last.get("id")).encode();
+        }
+        return new TodoSlice<>(items, nextCursor);
+    }
+
+    private static Object attribute(TodoResponse todo, String field) {
+        return switch (field) {
+            case "id" -> todo.getId();
+            case "title" -> todo.getTitle();
+            case "description" -> todo.getDescription();
+            case "completed" -> todo.getCompleted();
+            case "dueDate" -> todo.getDueDate();
+            case "createdAt" -> todo.getCreatedAt();
+            case "updatedAt" -> todo.getUpdatedAt();
+            case "version" -> todo.getVersion();
+            default -> throw new IllegalArgumentException("Unknown field: " + field);
+        };
+    }
+
+    /** Version of a todo, without loading it, for conditional GETs. */
+    public long findVersion(UUID id) {
+        return todoStore.findVersion(id)
+                .orElseThrow(() -> new NotFoundException("Todo not found with id: " + id));
+    }
+
+    /**
+     * Version of every list query: it changes with each committed write. Take it before reading
+     * the list it tags.
+     */
+    public String listVersion() {
+        return changeLog.position();
+    }
+
     public TodoResponse findById(UUID id) {
-        Todo todo = todoRepository.findById(id)
+        Todo todo = todoStore.findById(id)
                 .orElseThrow(() -> new NotFoundException("Todo not found with id: " + id));
         return new TodoResponse(todo);
     }
 
-    @Transactional
-    public TodoResponse update(UUID id, UpdateTodoRequest request) {
-        Todo todo = todoRepository.findById(id)
+    /**
+     * Passes every todo matching the list filters to {@code action}, most recently updated first,
+     * straight from the store: the result set is never collected, and a slow {@code action}
+     * slows the scan down instead of letting rows pile up.
+     */
+    public void export(Boolean completed, String query, Consumer<TodoResponse> action) {
+        todoStore.forEach(completed, query, todo -> action.accept(new TodoResponse(todo)));
+    }
+
+    /** Reads the change log from {@code token} on; costs O(changes since), not O(rows). */
+    public TodoChangesResponse changesSince(String token, int limit) {
+        return changeLog.since(token, limit);
+    }
+
+    /** Sends changes committed from now on to {@code sink} until the returned handle is run. */
+    public Runnable subscribe(TodoEventStream.Sink sink) {
+        return eventStream.subscribe(sink);
+    }
+
+    /** Served from in-memory counters, no COUNT(*) per request. */
+    public TodoStatsResponse stats() {
+        return stats.get();
+    }
+
+    /**
+     * Full update. With an expected version (If-Match) this is one conditional UPDATE and the row is
+     * not read first; without one the entity is loaded, modified and merged.
+     */
+    public TodoResponse update(UUID id, UpdateTodoRequest request, Long expectedVersion) {
+        return writes.execute(() -> doUpdate(id, request, expectedVersion));
+    }
+
+    private TodoResponse doUpdate(UUID id, UpdateTodoRequest request, Long expectedVersion) {
+        if (expectedVersion != null) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("title", request.getTitle());
+            values.put("description", request.getDescription());
+            values.put("completed", request.getCompleted());
+            values.put("dueDate", request.getDueDate());
+            return updateIfVersion(id, expectedVersion, values, todo -> applyUpdate(todo, request));
+        }
+
+        Todo todo = todoStore.findById(id)
+                .orElseThrow(() -> new NotFoundException("Todo not found with id: " + id));
+        TodoResponse before = new TodoResponse(todo);
+
+        applyUpdate(todo, request);
+
+        todo = todoStore.update(todo);
+        TodoResponse response = new TodoResponse(todo);
+        todoChanged.fire(TodoChangedEvent.updated(before, response));
+        return response;
+    }
+
+    /**
+     * Partial update, null fields are left untouched. The If-Match path works as in {@link #update};
+     * without If-Match, concurrent patches of the same todo are merged into one write (PatchCoalescer).
+     */
+    public TodoResponse patch(UUID id, PatchTodoRequest request, Long expectedVersion) {
+        if (expectedVersion != null) {
+            return writes.execute(() -> doPatch(id, request, expectedVersion));
+        }
+        return patches.patch(id, request, merged -> writes.execute(() -> doPatch(id, merged, null)));
+    }
+
+    private TodoResponse doPatch(UUID id, PatchTodoRequest request, Long expectedVersion) {
+        if (expectedVersion != null) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            if (request.getTitle() != null) {
+                values.put("title", request.getTitle());
+            }
+            if (request.getDescription() != null) {
+                values.put("description", request.getDescription());
+            }
+            if (request.getCompleted() != null) {
+                values.put("completed", request.getCompleted());
+            }
+            if (request.getDueDate() != null) {
+                values.put("dueDate", request.getDueDate());
+            }
+            return updateIfVersion(id, expectedVersion, values, todo -> applyPatch(todo, request));
+        }
+
+        Todo todo = todoStore.findById(id)
                 .orElseThrow(() -> new NotFoundException("Todo not found with id: " + id));
+        TodoResponse before = new TodoResponse(todo);
 
+        applyPatch(todo, request);
+
+        todo = todoStore.update(todo);
+        TodoResponse response = new TodoResponse(todo);
+        todoChanged.fire(TodoChangedEvent.updated(before, response));
+        return response;
+    }
+
+    private TodoResponse updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values, Consumer<Todo> changes) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Todo todo = todoStore.updateIfVersion(id, expectedVersion, values, now)
+                .orElseThrow(() -> todoStore.exists(id)
+                        ? new ClientErrorException("Todo " + id + " does not have version " + expectedVersion,
+                                Response.Status.PRECONDITION_FAILED)
+                        : new NotFoundException("Todo not found with id: " + id));
+
+        // The repository returns the pre-image; replay the same changes to build the new state
+        TodoResponse before = new TodoResponse(todo);
+        changes.accept(todo);
+        todo.setUpdatedAt(now);
+        todo.setVersion(todo.getVersion() + 1);
+
+        TodoResponse response = new TodoResponse(todo);
+        todoChanged.fire(TodoChangedEvent.updated(before, response));
+        return response;
+    }
+
+    private static void applyUpdate(Todo todo, UpdateTodoRequest request) {
         todo.setTitle(request.getTitle());
         todo.setDescription(request.getDescription());
         todo.setCompleted(request.getCompleted());
         todo.setDueDate(request.getDueDate());
-
-        todo = todoRepository.save(todo);
-        return new TodoResponse(todo);
     }
 
-    @Transactional
-    public TodoResponse patch(UUID id, PatchTodoRequest request) {
-        Todo todo = todoRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Todo not found with id: " + id));
-
+    private static void applyPatch(Todo todo, PatchTodoRequest request) {
         if (request.getTitle() != null) {
             todo.setTitle(request.getTitle());
         }
@@ -77,15 +491,110 @@ public class TodoService {
         if (request.getDueDate() != null) {
             todo.setDueDate(request.getDueDate());
         }
+    }
 
-        todo = todoRepository.save(todo);
-        return new TodoResponse(todo);
+    /**
+     * Set-based PATCH: one UPDATE for every todo matching the list filters.
+     */
+    @Transactional
+    public int patchAll(Boolean completed, String query, PatchTodoRequest request) {
+        requireFilter(completed, query);
+        if (request == null || request.getTitle() == null && request.getDescription() == null
+                && request.getCompleted() == null && request.getDueDate() == null) {
+            throw new BadRequestException("At least one field to update is required");
+        }
+        int affected = todoStore.updateAll(completed, query, request);
+        if (affected > 0) {
+            todoChanged.fire(TodoChangedEvent.bulk());
+        }
+        return affected;
     }
 
+    /**
+     * Set-based DELETE: one DELETE for every todo matching the list filters.
+     */
     @Transactional
+    public int deleteAll(Boolean completed, String query) {
+        requireFilter(completed, query);
+        int affected = todoStore.deleteAll(completed, query);
+        if (affected > 0) {
+            todoChanged.fire(TodoChangedEvent.bulk());
+        }
+        return affected;
+    }
+
+    /**
+     * Deletes without loading the entity first; the affected row count decides between 204 and 404.
+     */
     public void delete(UUID id) {
-        Todo todo = todoRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Todo not found with id: " + id));
-        todoRepository.delete(todo);
+        writes.execute(() -> {
+            Todo deleted = todoStore.deleteReturning(id)
+                    .orElseThrow(() -> new NotFoundException("Todo not found with id: " + id));
+            todoChanged.fire(TodoChangedEvent.deleted(id, new TodoResponse(deleted)));
+            return null;
+        });
+    }
+
+    // Guards against an accidental unfiltered PATCH/DELETE of the whole table
+    private static void requireFilter(Boolean completed, String query) {
+        if (completed == null && (query == null || query.trim().isEmpty())) {
+            throw new BadRequestException("At least one filter (completed, q) is required");
+        }
+    }
+
+    /** Counts of one import, updated by the reading and the inserting thread, logged as it goes. */
+    private static final class ImportProgress {
+
+        private final int maxErrors;
+        private final long logInterval;
+        private final long started = System.nanoTime();
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<BatchItemError> errors = new ArrayList<>();
+
+        ImportProgress(int maxErrors, long logInterval) {
+            this.maxErrors = maxErrors;
+            this.logInterval = logInterval;
+        }
+
+        void read() {
+            if (read.incrementAndGet() % logInterval == 0) {
+                LOG.infof("Import: %d rows read, %d imported, %d failed", read.get(), imported.get(), failed.get());
+            }
+        }
+
+        void imported(int rows) {
+            imported.addAndGet(rows);
+        }
+
+        void failed(int line, List<String> messages) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new BatchItemError(line, messages));
+                }
+            }
+        }
+
+        TodoImportResponse finish() {
+            long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            LOG.infof("Import finished: %d rows read, %d imported, %d failed in %d ms (%d rows/s)",
+                    read.get(), imported.get(), failed.get(), elapsedMillis, imported.get() * 1000 / elapsedMillis);
+            synchronized (errors) {
+                List<BatchItemError> sorted = new ArrayList<>(errors);
+                sorted.sort(Comparator.comparingInt(BatchItemError::getIndex));
+                return new TodoImportResponse(read.get(), imported.get(), failed.get(), sorted, failed.get() > sorted.size());
+            }
+        }
+    }
+
+    private static Todo toEntity(CreateTodoRequest request) {
+        Todo todo = new Todo();
+        todo.setTitle(request.getTitle());
+        todo.setDescription(request.getDescription());
+        todo.setCompleted(request.getCompleted() != null ? request.getCompleted() : false);
+        todo.setDueDate(request.getDueDate());
+        return todo;
     }
 }
@@ -0,0 +1,199 @@
+package com.demo.service;
+
+import com.demo.dto.TodoResponse;
+import com.demo.dto.TodoStatsResponse;
+import com.demo.event.TodoChangedEvent;
+import com.demo.store.TodoStore;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDate;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process todo counters behind GET /api/todos/stats.
+ *
+ * <p>Committed single-row writes adjust the counters from the event's before/after
+ * state. Bulk writes, whose rows are not known, mark the counters stale and rebuild them
+ * from one GROUP BY scan in the background; reads keep answering from the last counts
+ * until the rebuilt copy is swapped in. Single-row writes committing during a scan are
+ * replayed onto the rebuilt copy before the swap. A full rebuild also runs at startup and
+ * on {@code todo.stats.reconcile-interval}, which repairs drift from a write committing
+ * just as a scan starts or from other writers of the same database.
+ */
+@ApplicationScoped
+public class TodoStats {
+
+    private static final Logger LOG = Logger.getLogger(TodoStats.class);
+
+    @Inject
+    TodoStore todoStore;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Shared by writers applying a delta, exclusive while a rebuild starts or swaps its copy in
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("todo-stats").daemon().factory());
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    private volatile Counts counts = new Counts();
+    private volatile boolean stale = true;
+    // Guarded by swapLock. Non-null while a rebuild scans: the writes its result may not include
+    private Queue<TodoChangedEvent> missed;
+
+    void onStart(@Observes StartupEvent ev) {
+        reconcile();
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        rebuilder.shutdownNow();
+    }
+
+    @Scheduled(every = "${todo.stats.reconcile-interval:5m}", delayed = "${todo.stats.reconcile-interval:5m}")
+    void scheduledReconcile() {
+        reconcile();
+    }
+
+    public TodoStatsResponse get() {
+        if (stale) {
+            // Retries a rebuild that failed; readers never wait for the scan
+            rebuildInBackground();
+        }
+        Counts current = counts;
+        long total = current.total.sum();
+        long completed = current.completed.sum();
+        return new TodoStatsResponse(total, total - completed, completed, current.overdue(LocalDate.now()));
+    }
+
+    void onTodoChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) TodoChangedEvent event) {
+        if (event.getType() == TodoChangedEvent.Type.BULK
+                || (event.getType() != TodoChangedEvent.Type.CREATED && event.getBefore() == null)) {
+            stale = true;
+            rebuildInBackground();
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            counts.apply(event);
+            if (missed != null) {
+                missed.add(event);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void rebuildInBackground() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                // Cleared first so a bulk write landing during this rebuild queues another one
+                rebuildQueued.set(false);
+                try {
+                    reconcile();
+                } catch (RuntimeException e) {
+                    LOG.warn("Rebuilding the stats counters failed", e);
+                }
+            });
+        }
+    }
+
+    void reconcile() {
+        rebuildLock.lock();
+        try {
+            // Cleared before the scan so a bulk write committing meanwhile marks it stale again
+            stale = false;
+            swapLock.writeLock().lock();
+            try {
+                missed = new ConcurrentLinkedQueue<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            Counts fresh = new Counts();
+            // Also runs on the rebuild thread, which has no request context of its own
+            for (Object[] row : QuarkusTransaction.requiringNew().call(todoStore::countByCompletedAndDueDate)) {
+                fresh.add((Boolean) row[0], (LocalDate) row[1], (Long) row[2]);
+            }
+            Counts previous;
+            swapLock.writeLock().lock();
+            try {
+                // These went to the old counts only
+                for (TodoChangedEvent event : missed) {
+                    fresh.apply(event);
+                }
+                missed = null;
+                previous = counts;
+                counts = fresh;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            long drift = fresh.total.sum() - previous.total.sum();
+            long completedDrift = fresh.completed.sum() - previous.completed.sum();
+            if (drift != 0 || completedDrift != 0) {
+                LOG.debugf("Stats reconciled: total %+d, completed %+d", drift, completedDrift);
+            }
+        } catch (RuntimeException e) {
+            swapLock.writeLock().lock();
+            try {
+                missed = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            stale = true;
+            throw e;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private static final class Counts {
+
+        final LongAdder total = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        // Open todos by due date; overdue is the sum of the dates before today
+        final ConcurrentSkipListMap<LocalDate, LongAdder> openByDueDate = new ConcurrentSkipListMap<>();
+
+        void apply(TodoChangedEvent event) {
+            add(event.getBefore(), -1);
+            add(event.getAfter(), 1);
+        }
+
+        void add(TodoResponse state, long delta) {
+            if (state != null) {
+                add(state.getCompleted(), state.getDueDate(), delta);
+            }
+        }
+
+        void add(Boolean done, LocalDate dueDate, long delta) {
+            total.add(delta);
+            if (Boolean.TRUE.equals(done)) {
+                completed.add(delta);
+            } else if (dueDate != null) {
+                openByDueDate.computeIfAbsent(dueDate, date -> new LongAdder()).add(delta);
+            }
+        }
+
+        long overdue(LocalDate today) {
+            long overdue = 0;
+            for (LongAdder count : openByDueDate.headMap(today).values()) {
+                overdue += count.sum();
+            }
+            return overdue;
+        }
+    }
+}
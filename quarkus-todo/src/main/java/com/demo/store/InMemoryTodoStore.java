@@ -0,0 +1,506 @@
+package com.demo.store;
+
+import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoCursor;
+import com.demo.entity.TimeOrderedUuid;
+import com.demo.entity.Todo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Singleton;
+import jakarta.persistence.OptimisticLockException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Heap-resident engine: todos by id in a concurrent hash map, plus concurrent skip lists ordered
+ * by (updatedAt, id) for all todos and for each {@code completed} partition.
+ *
+ * <p>Reads never lock. Writers are serialized by one lock so the order of the write-ahead log is
+ * the order in which changes became visible, which is what recovery replays. A write is applied
+ * in memory right after its log record and acknowledged once the record is on disk
+ * ({@code todo.store.memory.fsync}). Periodic snapshots, plus one at shutdown, bound the log
+ * that startup has to replay.
+ *
+ * <p>Startup maps the snapshot ({@link MappedSnapshot}) instead of decoding it: rows come back as
+ * {@link MappedTodo}s whose text is paged in when first read, so a restored pod is serving after
+ * one pass over the fixed-width index.
+ */
+@Singleton
+@Typed(InMemoryTodoStore.class)
+public class InMemoryTodoStore implements TodoStore {
+
+    private static final Logger LOG = Logger.getLogger(InMemoryTodoStore.class);
+
+    private static final String SNAPSHOT = "snapshot.bin";
+
+    @ConfigProperty(name = "todo.store.memory.dir", defaultValue = "./data/todo-store")
+    String directory;
+
+    @ConfigProperty(name = "todo.store.memory.fsync", defaultValue = "true")
+    boolean fsync;
+
+    @ConfigProperty(name = "todo.store.memory.snapshot-interval", defaultValue = "5m")
+    Duration snapshotInterval;
+
+    private final Map<UUID, Todo> rows = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<RowKey, Todo> byUpdatedAt = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<RowKey, Todo> openByUpdatedAt = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<RowKey, Todo> completedByUpdatedAt = new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private Path dir;
+    private WriteAheadLog wal;
+    private ScheduledExecutorService snapshots;
+    private long snapshotPosition;
+
+    @PostConstruct
+    void open() {
+        long started = System.nanoTime();
+        try {
+            dir = Path.of(directory);
+            Files.createDirectories(dir);
+            long replayFrom = loadSnapshot();
+            wal = new WriteAheadLog(dir, fsync);
+            int replayed = wal.open(replayFrom, this::replay);
+            LOG.infof("In-memory todo store opened with %d todos from %s (%d log records replayed) in %d ms",
+                    rows.size(), dir.toAbsolutePath(), replayed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the todo store in " + directory, e);
+        }
+
+        snapshots = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "todo-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = snapshotInterval.toMillis();
+        snapshots.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (RuntimeException e) {
+                LOG.error("Todo store snapshot failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void close() {
+        snapshots.shutdown();
+        try {
+            snapshots.awaitTermination(30, TimeUnit.SECONDS);
+            snapshot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.error("Final todo store snapshot failed, the write-ahead log still covers every write", e);
+        }
+        try {
+            wal.close();
+        } catch (IOException e) {
+            LOG.error("Failed to close the todo write-ahead log", e);
+        }
+    }
+
+    @Override
+    public Todo insert(Todo todo) {
+        insertAll(List.of(todo));
+        return todo;
+    }
+
+    @Override
+    public void insertAll(List<Todo> todos) {
+        Instant now = now();
+        List<Todo> stored = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            if (todo.getId() == null) {
+                todo.setId(TimeOrderedUuid.next());
+            }
+            todo.setCreatedAt(now);
+            todo.setUpdatedAt(now);
+            todo.setVersion(0L);
+            stored.add(TodoAttributes.copy(todo));
+        }
+
+        long position;
+        writeLock.lock();
+        try {
+            for (Todo todo : stored) {
+                wal.append(TodoRecords.put(todo));
+            }
+            for (Todo todo : stored) {
+                apply(null, todo);
+            }
+            position = wal.position();
+        } finally {
+            writeLock.unlock();
+        }
+        wal.sync(position);
+    }
+
+    @Override
+    public Optional<Todo> findById(UUID id) {
+        Todo todo = rows.get(id);
+        return todo != null ? Optional.of(TodoAttributes.copy(todo)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<Long> findVersion(UUID id) {
+        Todo todo = rows.get(id);
+        return todo != null ? Optional.of(todo.getVersion()) : Optional.empty();
+    }
+
+    @Override
+    public boolean exists(UUID id) {
+        return rows.containsKey(id);
+    }
+
+    @Override
+    public List<Todo> findAll(Boolean completed, String query, TodoCursor cursor, int page, int size, String sort) {
+        List<Todo> todos = scan(completed, query, cursor, isAscending(sort), cursor != null ? 0 : page * size, size);
+        todos.replaceAll(TodoAttributes::copy);
+        return todos;
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(Boolean completed, String query, TodoCursor cursor, int page,
+                                                      int size, String sort, List<String> attributes) {
+        Set<String> selected = new LinkedHashSet<>(attributes);
+        selected.add("id");
+        selected.add("updatedAt");
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Todo todo : scan(completed, query, cursor, isAscending(sort), cursor != null ? 0 : page * size, size)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String attribute : selected) {
+                row.put(attribute, TodoAttributes.get(todo, attribute));
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    @Override
+    public Todo update(Todo todo) {
+        Todo next;
+        long position;
+        writeLock.lock();
+        try {
+            Todo current = rows.get(todo.getId());
+            if (current == null || !current.getVersion().equals(todo.getVersion())) {
+                throw new OptimisticLockException("Todo was modified concurrently: " + todo.getId());
+            }
+            next = TodoAttributes.copy(todo);
+            next.setCreatedAt(current.getCreatedAt());
+            next.setUpdatedAt(now());
+            next.setVersion(current.getVersion() + 1);
+            position = wal.append(TodoRecords.put(next));
+            apply(current, next);
+        } finally {
+            writeLock.unlock();
+        }
+        wal.sync(position);
+        return TodoAttributes.copy(next);
+    }
+
+    @Override
+    public Optional<Todo> updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values, Instant now) {
+        Todo current;
+        long position;
+        writeLock.lock();
+        try {
+            current = rows.get(id);
+            if (current == null || current.getVersion() != expectedVersion) {
+                return Optional.empty();
+            }
+            Todo next = TodoAttributes.copy(current);
+            values.forEach((attribute, value) -> TodoAttributes.set(next, attribute, value));
+            next.setUpdatedAt(now);
+            next.setVersion(current.getVersion() + 1);
+            position = wal.append(TodoRecords.put(next));
+            apply(current, next);
+        } finally {
+            writeLock.unlock();
+        }
+        wal.sync(position);
+        return Optional.of(TodoAttributes.copy(current));
+    }
+
+    @Override
+    public int updateAll(Boolean completed, String query, PatchTodoRequest changes) {
+        Instant now = now();
+        int affected;
+        long position;
+        writeLock.lock();
+        try {
+            // Exact under the write lock: no other writer can change the matching set
+            List<Todo> matching = scan(completed, query, null, true, 0, Integer.MAX_VALUE);
+            List<Todo> updated = new ArrayList<>(matching.size());
+            for (Todo current : matching) {
+                Todo next = TodoAttributes.copy(current);
+                if (changes.getTitle() != null) {
+                    next.setTitle(changes.getTitle());
+                }
+                if (changes.getDescription() != null) {
+                    next.setDescription(changes.getDescription());
+                }
+                if (changes.getCompleted() != null) {
+                    next.setCompleted(changes.getCompleted());
+                }
+                if (changes.getDueDate() != null) {
+                    next.setDueDate(changes.getDueDate());
+                }
+                next.setUpdatedAt(now);
+                next.setVersion(current.getVersion() + 1);
+                wal.append(TodoRecords.put(next));
+                updated.add(next);
+            }
+            for (int i = 0; i < matching.size(); i++) {
+                apply(matching.get(i), updated.get(i));
+            }
+            affected = matching.size();
+            position = wal.position();
+        } finally {
+            writeLock.unlock();
+        }
+        wal.sync(position);
+        return affected;
+    }
+
+    @Override
+    public int deleteAll(Boolean completed, String query) {
+        int affected;
+        long position;
+        writeLock.lock();
+        try {
+            List<Todo> matching = scan(completed, query, null, true, 0, Integer.MAX_VALUE);
+            for (Todo current : matching) {
+                wal.append(TodoRecords.delete(current.getId()));
+            }
+            for (Todo current : matching) {
+                apply(current, null);
+            }
+            affected = matching.size();
+            position = wal.position();
+        } finally {
+            writeLock.unlock();
+        }
+        wal.sync(position);
+        return affected;
+    }
+
+    @Override
+    public Optional<Todo> deleteReturning(UUID id) {
+        Todo current;
+        long position;
+        writeLock.lock();
+        try {
+            current = rows.get(id);
+            if (current == null) {
+                return Optional.empty();
+            }
+            position = wal.append(TodoRecords.delete(id));
+            apply(current, null);
+        } finally {
+            writeLock.unlock();
+        }
+        wal.sync(position);
+        return Optional.of(TodoAttributes.copy(current));
+    }
+
+    @Override
+    public List<Object[]> countByCompletedAndDueDate() {
+        Map<Group, Long> counts = new HashMap<>();
+        for (Todo todo : rows.values()) {
+            counts.merge(new Group(todo.getCompleted(), todo.getDueDate()), 1L, Long::sum);
+        }
+        List<Object[]> result = new ArrayList<>(counts.size());
+        counts.forEach((group, count) -> result.add(new Object[]{group.completed(), group.dueDate(), count}));
+        return result;
+    }
+
+    /**
+     * Writes every todo to a new snapshot file and drops the log segments it covers. Skipped when
+     * nothing was written since the last snapshot. Rows still backed by the previous snapshot keep
+     * its mapping alive after the rename replaces the file; their records are copied over as-is.
+     */
+    void snapshot() {
+        snapshotLock.lock();
+        try {
+            long replayFrom;
+            writeLock.lock();
+            try {
+                if (wal.position() == snapshotPosition) {
+                    return;
+                }
+                snapshotPosition = wal.position();
+                replayFrom = wal.rotate();
+            } finally {
+                writeLock.unlock();
+            }
+
+            // Writers continue meanwhile; whatever this pass misses or sees half-way is in the
+            // segments from replayFrom on, and replaying those yields the latest state again
+            long started = System.nanoTime();
+            Path tmp = dir.resolve(SNAPSHOT + ".tmp");
+            List<Todo> todos = new ArrayList<>(rows.values());
+            // Index order matches byUpdatedAt, so list pages fault in neighbouring records
+            todos.sort(Comparator.comparing(RowKey::of));
+            MappedSnapshot.write(tmp, replayFrom, todos);
+            Files.move(tmp, dir.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            wal.deleteBefore(replayFrom);
+            LOG.debugf("Todo store snapshot with %d todos written in %d ms", todos.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the todo store snapshot", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /** @return the first log segment not covered by the snapshot */
+    private long loadSnapshot() throws IOException {
+        Path file = dir.resolve(SNAPSHOT);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        // Only the index is read here; row payloads are paged in from the mapping when first used
+        return MappedSnapshot.load(file, todo -> apply(null, todo));
+    }
+
+    private void replay(TodoRecords.Entry entry) {
+        Todo current = rows.get(entry.id());
+        if (entry.type() == TodoRecords.PUT) {
+            apply(current, entry.todo());
+        } else if (current != null) {
+            apply(current, null);
+        }
+    }
+
+    /**
+     * Swaps {@code previous} for {@code next} (either may be null). Index entries for the new
+     * state go in before the row is published and the old entries come out afterwards, so a
+     * reader checking index hits against {@link #rows} sees the old or the new state, never neither.
+     */
+    private void apply(Todo previous, Todo next) {
+        if (next != null) {
+            RowKey key = RowKey.of(next);
+            byUpdatedAt.put(key, next);
+            partition(next).put(key, next);
+            rows.put(next.getId(), next);
+        } else if (previous != null) {
+            rows.remove(previous.getId(), previous);
+        }
+        if (previous != null) {
+            RowKey key = RowKey.of(previous);
+            byUpdatedAt.remove(key, previous);
+            partition(previous).remove(key, previous);
+        }
+    }
+
+    private ConcurrentSkipListMap<RowKey, Todo> partition(Todo todo) {
+        return Boolean.TRUE.equals(todo.getCompleted()) ? completedByUpdatedAt : openByUpdatedAt;
+    }
+
+    /** Stored (shared) instances in list order; callers copy before handing them out. */
+    private List<Todo> scan(Boolean completed, String query, TodoCursor cursor, boolean ascending, int skip, int limit) {
+        List<Todo> result = new ArrayList<>(Math.min(limit, 256));
+        if (limit <= 0) {
+            return result;
+        }
+        NavigableMap<RowKey, Todo> index = completed == null ? byUpdatedAt
+                : completed ? completedByUpdatedAt : openByUpdatedAt;
+        if (cursor != null) {
+            RowKey from = new RowKey(cursor.getUpdatedAt(), cursor.getId());
+            index = ascending ? index.tailMap(from, false) : index.headMap(from, false);
+        }
+        String needle = query == null || query.trim().isEmpty() ? null : query.toLowerCase();
+        // A row moved ahead of the iterator by a concurrent update can come up twice
+        Set<UUID> seen = new HashSet<>();
+
+        for (Todo todo : (ascending ? index : index.descendingMap()).values()) {
+            if (rows.get(todo.getId()) != todo) {
+                // Superseded by a write that is still swapping index entries
+                continue;
+            }
+            if (needle != null && (todo.getTitle() == null || !todo.getTitle().toLowerCase().contains(needle))) {
+                continue;
+            }
+            if (!seen.add(todo.getId())) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            result.add(todo);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isAscending(String sort) {
+        return sort != null && sort.contains("updatedAt") && sort.contains("asc");
+    }
+
+    // Matches the precision of the JPA engine's TIMESTAMP(6) columns, so cursors behave the same
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /** (updatedAt, id) ordering; ids compare as unsigned bytes, the same order H2 uses for UUID. */
+    private record RowKey(Instant updatedAt, UUID id) implements Comparable<RowKey> {
+
+        static RowKey of(Todo todo) {
+            return new RowKey(todo.getUpdatedAt(), todo.getId());
+        }
+
+        @Override
+        public int compareTo(RowKey other) {
+            int order = updatedAt.compareTo(other.updatedAt);
+            if (order == 0) {
+                order = Long.compareUnsigned(id.getMostSignificantBits(), other.id.getMostSignificantBits());
+            }
+            if (order == 0) {
+                order = Long.compareUnsigned(id.getLeastSignificantBits(), other.id.getLeastSignificantBits());
+            }
+            return order;
+        }
+    }
+
+    private record Group(Boolean completed, LocalDate dueDate) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.demo.store;
+
+import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoCursor;
+import com.demo.entity.Todo;
+import com.demo.repository.TodoRepository;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * The H2/Hibernate engine: every call maps onto TodoRepository.
+ */
+@Singleton
+@Typed(JpaTodoStore.class)
+public class JpaTodoStore implements TodoStore {
+
+    @Inject
+    TodoRepository todoRepository;
+
+    @ConfigProperty(name = "todo.export.fetch-size", defaultValue = "500")
+    int exportFetchSize;
+
+    @Override
+    public Todo insert(Todo todo) {
+        return todoRepository.save(todo);
+    }
+
+    @Override
+    public void insertAll(List<Todo> todos) {
+        todoRepository.persistAll(todos);
+    }
+
+    @Override
+    public Optional<Todo> findById(UUID id) {
+        return todoRepository.findById(id);
+    }
+
+    @Override
+    public Optional<Long> findVersion(UUID id) {
+        return todoRepository.findVersion(id);
+    }
+
+    @Override
+    public boolean exists(UUID id) {
+        return todoRepository.exists(id);
+    }
+
+    @Override
+    public List<Todo> findAll(Boolean completed, String query, TodoCursor cursor, int page, int size, String sort) {
+        return todoRepository.findAll(completed, query, cursor, page, size, sort);
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(Boolean completed, String query, TodoCursor cursor, int page,
+                                                      int size, String sort, List<String> attributes) {
+        List<Tuple> tuples = todoRepository.findAllProjected(completed, query, cursor, page, size, sort, attributes);
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                row.put(element.getAlias(), tuple.get(element));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public void forEach(Boolean completed, String query, Consumer<Todo> action) {
+        // One cursor instead of a query per page
+        todoRepository.streamAll(completed, query, exportFetchSize, action);
+    }
+
+    @Override
+    public Todo update(Todo todo) {
+        return todoRepository.save(todo);
+    }
+
+    @Override
+    public Optional<Todo> updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values, Instant now) {
+        return todoRepository.updateIfVersion(id, expectedVersion, values, now);
+    }
+
+    @Override
+    public int updateAll(Boolean completed, String query, PatchTodoRequest changes) {
+        return todoRepository.updateAll(completed, query, changes);
+    }
+
+    @Override
+    public int deleteAll(Boolean completed, String query) {
+        return todoRepository.deleteAll(completed, query);
+    }
+
+    @Override
+    public Optional<Todo> deleteReturning(UUID id) {
+        return todoRepository.deleteReturning(id);
+    }
+
+    @Override
+    public List<Object[]> countByCompletedAndDueDate() {
+        return todoRepository.countByCompletedAndDueDate();
+    }
+}
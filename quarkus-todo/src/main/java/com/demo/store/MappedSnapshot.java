@@ -0,0 +1,220 @@
+package com.demo.store;
+
+import com.demo.entity.Todo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot file of the in-memory engine, laid out to be memory-mapped rather than read.
+ *
+ * <pre>
+ * header  32 bytes        magic, format, replayFrom, count, index crc32, file length
+ * index   count * 64      fixed-width entries in (updatedAt, id) order: id, version, updatedAt,
+ *                         completed, dueDate and the offset/length of the row's data record
+ * data    variable        per row: [int crc32][createdAt][title][description]
+ * </pre>
+ *
+ * <p>Loading maps the file and walks the index only; everything the engine filters, orders and
+ * counts on lives there. Titles, descriptions and createdAt stay in the mapped data section until
+ * a row is first read (see {@link MappedTodo}), so the OS pages them in on demand and startup
+ * time depends on the row count, not on the data size. Each data record carries its own
+ * checksum, verified when it is decoded.
+ *
+ * <p>A MappedByteBuffer is limited to 2 GiB, so larger snapshots are refused when written.
+ */
+final class MappedSnapshot {
+
+    static final int MAGIC = 0x54444F53;
+    static final int FORMAT = 1;
+
+    static final int HEADER = 32;
+    static final int ENTRY = 64;
+
+    // Index entry layout
+    static final int ID_MSB = 0;
+    static final int ID_LSB = 8;
+    static final int VERSION = 16;
+    static final int UPDATED_SECONDS = 24;
+    static final int UPDATED_NANOS = 32;
+    static final int COMPLETED = 36;
+    static final int DUE_DATE = 40;
+    static final int RECORD_OFFSET = 48;
+    static final int RECORD_LENGTH = 56;
+
+    static final long NULL_DATE = Long.MIN_VALUE;
+
+    private MappedSnapshot() {
+    }
+
+    /** Writes {@code todos}, which must be in (updatedAt, id) order, and forces the file to disk. */
+    static void write(Path file, long replayFrom, List<Todo> todos) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Region index = new Region(channel, HEADER);
+            Region data = new Region(channel, HEADER + (long) todos.size() * ENTRY);
+            CRC32 indexCrc = new CRC32();
+
+            for (Todo todo : todos) {
+                long offset = data.position();
+                ByteBuffer record = todo instanceof MappedTodo mapped ? mapped.record() : encode(todo);
+                int length = record.remaining();
+                data.write(record);
+
+                ByteBuffer entry = ByteBuffer.allocate(ENTRY);
+                entry.putLong(ID_MSB, todo.getId().getMostSignificantBits());
+                entry.putLong(ID_LSB, todo.getId().getLeastSignificantBits());
+                entry.putLong(VERSION, todo.getVersion());
+                entry.putLong(UPDATED_SECONDS, todo.getUpdatedAt().getEpochSecond());
+                entry.putInt(UPDATED_NANOS, todo.getUpdatedAt().getNano());
+                entry.put(COMPLETED, (byte) (Boolean.TRUE.equals(todo.getCompleted()) ? 1 : 0));
+                entry.putLong(DUE_DATE, todo.getDueDate() != null ? todo.getDueDate().toEpochDay() : NULL_DATE);
+                entry.putLong(RECORD_OFFSET, offset);
+                entry.putInt(RECORD_LENGTH, length);
+                indexCrc.update(entry.array());
+                index.write(entry);
+            }
+            index.flush();
+            data.flush();
+
+            long length = data.position();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Todo snapshot of " + length + " bytes exceeds the 2 GiB mapping limit");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(MAGIC).putInt(FORMAT).putLong(replayFrom).putInt(todos.size())
+                    .putInt((int) indexCrc.getValue()).putLong(length).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Maps {@code file} and hands every row to {@code sink} in (updatedAt, id) order, each backed
+     * by the mapping. The mapping outlives the channel and is released once no row refers to it.
+     *
+     * @return the first log segment not covered by the snapshot
+     */
+    static long load(Path file, Consumer<Todo> sink) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a todo snapshot: " + size + " bytes");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a todo snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT) {
+            throw new IOException("Unsupported todo snapshot format " + buffer.getInt(4));
+        }
+        long replayFrom = buffer.getLong(8);
+        int count = buffer.getInt(16);
+        int crc = buffer.getInt(20);
+        long length = buffer.getLong(24);
+        long dataStart = HEADER + (long) count * ENTRY;
+        if (count < 0 || length != buffer.capacity() || dataStart > length) {
+            throw new IOException("Truncated todo snapshot");
+        }
+        CRC32 indexCrc = new CRC32();
+        indexCrc.update(buffer.slice(HEADER, count * ENTRY));
+        if ((int) indexCrc.getValue() != crc) {
+            throw new IOException("Todo snapshot index checksum mismatch");
+        }
+
+        for (int i = 0; i < count; i++) {
+            int entry = HEADER + i * ENTRY;
+            long offset = buffer.getLong(entry + RECORD_OFFSET);
+            int recordLength = buffer.getInt(entry + RECORD_LENGTH);
+            if (offset < dataStart || recordLength < 4 || offset + recordLength > length) {
+                throw new IOException("Todo snapshot entry " + i + " points outside the data section");
+            }
+            sink.accept(new MappedTodo(buffer, entry));
+        }
+        return replayFrom;
+    }
+
+    private static ByteBuffer encode(Todo todo) {
+        byte[] title = bytes(todo.getTitle());
+        byte[] description = bytes(todo.getDescription());
+        ByteBuffer record = ByteBuffer.allocate(4 + 12 + 4 + length(title) + 4 + length(description));
+        record.position(4);
+        record.putLong(todo.getCreatedAt().getEpochSecond()).putInt(todo.getCreatedAt().getNano());
+        putBytes(record, title);
+        putBytes(record, description);
+
+        CRC32 checksum = new CRC32();
+        checksum.update(record.array(), 4, record.capacity() - 4);
+        record.putInt(0, (int) checksum.getValue());
+        return record.flip();
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static void putBytes(ByteBuffer record, byte[] bytes) {
+        if (bytes == null) {
+            record.putInt(-1);
+            return;
+        }
+        record.putInt(bytes.length).put(bytes);
+    }
+
+    /** Buffered sequential writes starting at a fixed file position, so index and data fill in one pass. */
+    private static final class Region {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private long position;
+
+        Region(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        long position() {
+            return position + buffer.position();
+        }
+
+        void write(ByteBuffer source) throws IOException {
+            if (source.remaining() > buffer.remaining()) {
+                flush();
+            }
+            if (source.remaining() > buffer.capacity()) {
+                drain(source);
+            } else {
+                buffer.put(source);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            drain(buffer);
+            buffer.clear();
+        }
+
+        private void drain(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                position += channel.write(source, position);
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.demo.store;
+
+import com.demo.entity.Todo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Packed layout of one todo row inside a slab. Fixed-width fields come first, so the engine can
+ * filter, order and count without decoding the strings:
+ *
+ * <pre>
+ *  0 int   record length        4 int   title bytes (-1: null)   8 int  description bytes (-1: null)
+ * 12 byte  completed           16 long  id msb                  24 long id lsb
+ * 32 long  version             40 long  createdAt seconds       48 long updatedAt seconds
+ * 56 long  dueDate epoch day   64 int   createdAt nanos          68 int  updatedAt nanos
+ * 72       title UTF-8, then description UTF-8
+ * </pre>
+ *
+ * All reads and writes use absolute positions, so one buffer can be shared between threads.
+ */
+final class PackedTodo {
+
+    static final int HEADER = 72;
+
+    private static final int LENGTH = 0;
+    private static final int TITLE_LENGTH = 4;
+    private static final int DESCRIPTION_LENGTH = 8;
+    private static final int COMPLETED = 12;
+    private static final int ID_MSB = 16;
+    private static final int ID_LSB = 24;
+    private static final int VERSION = 32;
+    private static final int CREATED_SECONDS = 40;
+    private static final int UPDATED_SECONDS = 48;
+    private static final int DUE_DATE = 56;
+    private static final int CREATED_NANOS = 64;
+    private static final int UPDATED_NANOS = 68;
+
+    static final long NULL_DATE = Long.MIN_VALUE;
+
+    private PackedTodo() {
+    }
+
+    /** The todo encoded once, so its size is known before slab space is allocated for it. */
+    record Encoded(Todo todo, byte[] title, byte[] description) {
+
+        static Encoded of(Todo todo) {
+            return new Encoded(todo, bytes(todo.getTitle()), bytes(todo.getDescription()));
+        }
+
+        int length() {
+            return HEADER + (title != null ? title.length : 0) + (description != null ? description.length : 0);
+        }
+    }
+
+    static void write(ByteBuffer slab, int offset, Encoded encoded) {
+        Todo todo = encoded.todo();
+        slab.putInt(offset + LENGTH, encoded.length());
+        slab.putInt(offset + TITLE_LENGTH, encoded.title() != null ? encoded.title().length : -1);
+        slab.putInt(offset + DESCRIPTION_LENGTH, encoded.description() != null ? encoded.description().length : -1);
+        slab.put(offset + COMPLETED, (byte) (Boolean.TRUE.equals(todo.getCompleted()) ? 1 : 0));
+        slab.putLong(offset + ID_MSB, todo.getId().getMostSignificantBits());
+        slab.putLong(offset + ID_LSB, todo.getId().getLeastSignificantBits());
+        slab.putLong(offset + VERSION, todo.getVersion());
+        slab.putLong(offset + CREATED_SECONDS, todo.getCreatedAt().getEpochSecond());
+        slab.putLong(offset + UPDATED_SECONDS, todo.getUpdatedAt().getEpochSecond());
+        slab.putLong(offset + DUE_DATE, todo.getDueDate() != null ? todo.getDueDate().toEpochDay() : NULL_DATE);
+        slab.putInt(offset + CREATED_NANOS, todo.getCreatedAt().getNano());
+        slab.putInt(offset + UPDATED_NANOS, todo.getUpdatedAt().getNano());
+        int position = offset + HEADER;
+        if (encoded.title() != null) {
+            slab.put(position, encoded.title());
+            position += encoded.title().length;
+        }
+        if (encoded.description() != null) {
+            slab.put(position, encoded.description());
+        }
+    }
+
+    /** Hydrates the full row; the only place the engine creates Todo objects from slab memory. */
+    static Todo read(ByteBuffer slab, int offset) {
+        Todo todo = new Todo();
+        todo.setId(id(slab, offset));
+        todo.setTitle(title(slab, offset));
+        todo.setDescription(description(slab, offset));
+        todo.setCompleted(completed(slab, offset));
+        todo.setDueDate(dueDate(slab, offset));
+        todo.setCreatedAt(createdAt(slab, offset));
+        todo.setUpdatedAt(updatedAt(slab, offset));
+        todo.setVersion(version(slab, offset));
+        return todo;
+    }
+
+    /** Decodes one attribute, for projections that should not pay for the whole row. */
+    static Object attribute(ByteBuffer slab, int offset, String attribute) {
+        return switch (attribute) {
+            case "id" -> id(slab, offset);
+            case "title" -> title(slab, offset);
+            case "description" -> description(slab, offset);
+            case "completed" -> completed(slab, offset);
+            case "dueDate" -> dueDate(slab, offset);
+            case "createdAt" -> createdAt(slab, offset);
+            case "updatedAt" -> updatedAt(slab, offset);
+            case "version" -> version(slab, offset);
+            default -> throw new IllegalArgumentException("Unknown attribute: " + attribute);
+        };
+    }
+
+    static int length(ByteBuffer slab, int offset) {
+        return slab.getInt(offset + LENGTH);
+    }
+
+    static long idMsb(ByteBuffer slab, int offset) {
+        return slab.getLong(offset + ID_MSB);
+    }
+
+    static long idLsb(ByteBuffer slab, int offset) {
+        return slab.getLong(offset + ID_LSB);
+    }
+
+    static UUID id(ByteBuffer slab, int offset) {
+        return new UUID(idMsb(slab, offset), idLsb(slab, offset));
+    }
+
+    static long version(ByteBuffer slab, int offset) {
+        return slab.getLong(offset + VERSION);
+    }
+
+    static boolean completed(ByteBuffer slab, int offset) {
+        return slab.get(offset + COMPLETED) != 0;
+    }
+
+    /** @return the due date as an epoch day, or {@link #NULL_DATE} when there is none */
+    static long dueEpochDay(ByteBuffer slab, int offset) {
+        return slab.getLong(offset + DUE_DATE);
+    }
+
+    static LocalDate dueDate(ByteBuffer slab, int offset) {
+        long dueDate = dueEpochDay(slab, offset);
+        return dueDate == NULL_DATE ? null : LocalDate.ofEpochDay(dueDate);
+    }
+
+    static Instant createdAt(ByteBuffer slab, int offset) {
+        return Instant.ofEpochSecond(slab.getLong(offset + CREATED_SECONDS), slab.getInt(offset + CREATED_NANOS));
+    }
+
+    static Instant updatedAt(ByteBuffer slab, int offset) {
+        return Instant.ofEpochSecond(updatedSeconds(slab, offset), updatedNanos(slab, offset));
+    }
+
+    static long updatedSeconds(ByteBuffer slab, int offset) {
+        return slab.getLong(offset + UPDATED_SECONDS);
+    }
+
+    static int updatedNanos(ByteBuffer slab, int offset) {
+        return slab.getInt(offset + UPDATED_NANOS);
+    }
+
+    static String title(ByteBuffer slab, int offset) {
+        return string(slab, offset + HEADER, slab.getInt(offset + TITLE_LENGTH));
+    }
+
+    static String description(ByteBuffer slab, int offset) {
+        int titleLength = Math.max(slab.getInt(offset + TITLE_LENGTH), 0);
+        return string(slab, offset + HEADER + titleLength, slab.getInt(offset + DESCRIPTION_LENGTH));
+    }
+
+    /**
+     * Orders the row against (updatedAt, id) without decoding it; ids compare as unsigned bytes,
+     * the same order H2 and the heap engine use.
+     */
+    static int compare(ByteBuffer slab, int offset, long seconds, int nanos, long msb, long lsb) {
+        int order = Long.compare(updatedSeconds(slab, offset), seconds);
+        if (order == 0) {
+            order = Integer.compare(updatedNanos(slab, offset), nanos);
+        }
+        if (order == 0) {
+            order = Long.compareUnsigned(idMsb(slab, offset), msb);
+        }
+        if (order == 0) {
+            order = Long.compareUnsigned(idLsb(slab, offset), lsb);
+        }
+        return order;
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String string(ByteBuffer slab, int position, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        slab.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
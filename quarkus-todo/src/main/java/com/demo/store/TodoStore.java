@@ -0,0 +1,99 @@
+package com.demo.store;
+
+import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoCursor;
+import com.demo.entity.Todo;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Storage engine behind TodoService, selected with {@code todo.store.engine}:
+ * {@code jpa} (H2 through Hibernate, the default) or {@code memory} ({@link InMemoryTodoStore}).
+ *
+ * <p>List filters and ordering are those of GET /api/todos: {@code completed} equality, a
+ * case-insensitive title substring, and (updatedAt, id) in the direction given by {@code sort}.
+ * Todos returned by an engine belong to the caller and may be modified freely.
+ */
+public interface TodoStore {
+
+    // Rows per findAll call when forEach pages through an engine
+    int SCAN_PAGE_SIZE = 500;
+
+    /** Assigns id, timestamps and the initial version, and stores the todo. */
+    Todo insert(Todo todo);
+
+    /** Inserts new todos in one unit of work; ids are assigned to the given instances. */
+    void insertAll(List<Todo> todos);
+
+    Optional<Todo> findById(UUID id);
+
+    /** The version of a todo without loading the rest of it; backs conditional GETs. */
+    default Optional<Long> findVersion(UUID id) {
+        return findById(id).map(Todo::getVersion);
+    }
+
+    boolean exists(UUID id);
+
+    List<Todo> findAll(Boolean completed, String query, TodoCursor cursor, int page, int size, String sort);
+
+    /**
+     * Same rows and order as {@link #findAll}; each row maps the given attributes, plus id and
+     * updatedAt for the next cursor, to their values.
+     */
+    List<Map<String, Object>> findAllProjected(Boolean completed, String query, TodoCursor cursor, int page,
+                                               int size, String sort, List<String> attributes);
+
+    /**
+     * Passes every todo matching the list filters to {@code action}, most recently updated first,
+     * without holding them all at once. {@code action} may block, and the scan waits for it. By
+     * default the engine is paged through with a cursor, so rows written during the scan may or
+     * may not be seen.
+     */
+    default void forEach(Boolean completed, String query, Consumer<Todo> action) {
+        TodoCursor cursor = null;
+        List<Todo> page;
+        do {
+            page = findAll(completed, query, cursor, 0, SCAN_PAGE_SIZE, "updatedAt,desc");
+            for (Todo todo : page) {
+                action.accept(todo);
+            }
+            if (!page.isEmpty()) {
+                Todo last = page.get(page.size() - 1);
+                cursor = new TodoCursor(last.getUpdatedAt(), last.getId());
+            }
+        } while (page.size() == SCAN_PAGE_SIZE);
+    }
+
+    /**
+     * Writes back a todo obtained from {@link #findById}, bumping updatedAt and the version.
+     * Fails with an optimistic lock exception if the todo changed or disappeared meanwhile.
+     *
+     * @return the stored state
+     */
+    Todo update(Todo todo);
+
+    /**
+     * Sets the given attributes (title, description, completed, dueDate; null values clear them)
+     * if the todo still has {@code expectedVersion}, and stamps updatedAt with {@code now}.
+     *
+     * @return the todo as it was before the update, or empty if no todo had that id and version
+     */
+    Optional<Todo> updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values, Instant now);
+
+    /** Applies the non-null fields of {@code changes} to every todo matching the list filters. */
+    int updateAll(Boolean completed, String query, PatchTodoRequest changes);
+
+    /** Deletes every todo matching the list filters. */
+    int deleteAll(Boolean completed, String query);
+
+    /** @return the deleted todo, or empty if no todo had that id */
+    Optional<Todo> deleteReturning(UUID id);
+
+    /** Todo counts per (completed, dueDate); rows are [Boolean, LocalDate, Long]. */
+    List<Object[]> countByCompletedAndDueDate();
+}
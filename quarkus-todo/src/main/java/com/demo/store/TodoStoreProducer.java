@@ -0,0 +1,38 @@
+package com.demo.store;
+
+import io.quarkus.runtime.Startup;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Exposes the engine named by {@code todo.store.engine} as the TodoStore bean. The other engines
+ * are never instantiated, so the memory and off-heap engines only open their directory when
+ * selected. The engines are singletons (no client proxy), so selecting one at startup also runs
+ * its recovery before the first request.
+ */
+@ApplicationScoped
+public class TodoStoreProducer {
+
+    private static final Logger LOG = Logger.getLogger(TodoStoreProducer.class);
+
+    @ConfigProperty(name = "todo.store.engine", defaultValue = "jpa")
+    String engine;
+
+    @Produces
+    @Startup
+    @ApplicationScoped
+    TodoStore todoStore(Instance<JpaTodoStore> jpa, Instance<InMemoryTodoStore> memory,
+                        Instance<OffHeapTodoStore> offheap) {
+        LOG.infof("Todo storage engine: %s", engine);
+        return switch (engine) {
+            case "jpa" -> jpa.get();
+            case "memory" -> memory.get();
+            case "offheap" -> offheap.get();
+            default -> throw new IllegalStateException("Unknown todo.store.engine: " + engine
+                    + ", expected jpa, memory or offheap");
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.demo;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveTodoApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveTodoApplication.class, args);
+    }
+}
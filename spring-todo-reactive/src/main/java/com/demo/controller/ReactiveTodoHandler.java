@@ -0,0 +1,241 @@
+package com.demo.controller;
+
+import com.demo.dto.BatchCreateResponse;
+import com.demo.dto.CreateTodoRequest;
+import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoCursor;
+import com.demo.dto.TodoFields;
+import com.demo.dto.TodoResponse;
+import com.demo.dto.UpdateTodoRequest;
+import com.demo.service.ReactiveTodoService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Handler functions for the /api/todos routes in {@link ReactiveTodoRouter}; request and response
+ * bodies, status codes and headers follow spring-todo's TodoController.
+ */
+@Component
+public class ReactiveTodoHandler {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ReactiveTodoService todoService;
+    private final Validator validator;
+
+    public ReactiveTodoHandler(ReactiveTodoService todoService, Validator validator) {
+        this.todoService = todoService;
+        this.validator = validator;
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return body(request, CreateTodoRequest.class)
+                .flatMap(todoService::create)
+                .flatMap(todo -> withETag(ServerResponse.status(HttpStatus.CREATED), todo));
+    }
+
+    /** JSON array or NDJSON; both are decoded item by item. */
+    public Mono<ServerResponse> createBatch(ServerRequest request) {
+        return todoService.createBatch(request.bodyToFlux(CreateTodoRequest.class))
+                .flatMap(ReactiveTodoHandler::batchResponse);
+    }
+
+    /**
+     * A JSON page is collected so X-Next-Cursor can be set from its last row. With
+     * {@code Accept: application/x-ndjson} each row is written as soon as the driver decodes it,
+     * without that header, since the headers are sent before the last row is known.
+     */
+    public Mono<ServerResponse> list(ServerRequest request) {
+        int size = intParam(request, "size", 20);
+        List<String> fields = parseFields(request.queryParam("fields").orElse(null));
+        Flux<TodoResponse> todos = todoService.findAll(
+                booleanParam(request, "completed"),
+                request.queryParam("q").orElse(null),
+                parseCursor(request.queryParam("cursor").orElse(null)),
+                intParam(request, "page", 0),
+                size,
+                request.queryParam("sort").orElse("updatedAt,desc"));
+
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+            Flux<Object> rows = fields == null ? todos.cast(Object.class) : todos.map(todo -> project(todo, fields));
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(rows, Object.class);
+        }
+        return todos.collectList().flatMap(items -> {
+            ServerResponse.BodyBuilder builder = ServerResponse.ok().contentType(MediaType.APPLICATION_JSON);
+            if (items.size() == size && size > 0) {
+                builder.header(NEXT_CURSOR_HEADER, TodoCursor.after(items.get(items.size() - 1)).encode());
+            }
+            return fields == null ? builder.bodyValue(items)
+                    : builder.bodyValue(items.stream().map(todo -> project(todo, fields)).toList());
+        });
+    }
+
+    public Mono<ServerResponse> stats(ServerRequest request) {
+        return todoService.stats().flatMap(stats -> ServerResponse.ok().bodyValue(stats));
+    }
+
+    public Mono<ServerResponse> getById(ServerRequest request) {
+        UUID id = pathId(request);
+        return todoService.findById(id)
+                .flatMap(todo -> withETag(ServerResponse.ok(), todo))
+                .switchIfEmpty(notFound(id));
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        UUID id = pathId(request);
+        Long expectedVersion = expectedVersion(request);
+        return body(request, UpdateTodoRequest.class)
+                .flatMap(body -> todoService.update(id, body, expectedVersion))
+                .flatMap(todo -> withETag(ServerResponse.ok(), todo))
+                .switchIfEmpty(notFound(id));
+    }
+
+    public Mono<ServerResponse> patch(ServerRequest request) {
+        UUID id = pathId(request);
+        Long expectedVersion = expectedVersion(request);
+        return body(request, PatchTodoRequest.class)
+                .flatMap(body -> todoService.patch(id, body, expectedVersion))
+                .flatMap(todo -> withETag(ServerResponse.ok(), todo))
+                .switchIfEmpty(notFound(id));
+    }
+
+    public Mono<ServerResponse> patchAll(ServerRequest request) {
+        Boolean completed = booleanParam(request, "completed");
+        String q = request.queryParam("q").orElse(null);
+        return body(request, PatchTodoRequest.class)
+                .flatMap(body -> todoService.patchAll(completed, q, body))
+                .flatMap(affected -> ServerResponse.ok().bodyValue(Map.of("affected", affected)));
+    }
+
+    public Mono<ServerResponse> deleteAll(ServerRequest request) {
+        return todoService.deleteAll(booleanParam(request, "completed"), request.queryParam("q").orElse(null))
+                .flatMap(affected -> ServerResponse.ok().bodyValue(Map.of("affected", affected)));
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        UUID id = pathId(request);
+        return todoService.delete(id)
+                .flatMap(deleted -> ServerResponse.noContent().build())
+                .switchIfEmpty(notFound(id));
+    }
+
+    // Same body as spring-todo's ApiExceptionHandler
+    private static Mono<ServerResponse> notFound(UUID id) {
+        return Mono.defer(() -> ServerResponse.status(HttpStatus.NOT_FOUND)
+                .bodyValue(Map.of("status", 404, "detail", "Todo not found with id: " + id)));
+    }
+
+    private static Mono<ServerResponse> withETag(ServerResponse.BodyBuilder builder, TodoResponse todo) {
+        return builder.eTag(EntityTags.of(todo)).bodyValue(todo);
+    }
+
+    private static Mono<ServerResponse> batchResponse(BatchCreateResponse response) {
+        // 201 when everything was created, 200 for a partial batch, 400 when nothing was
+        HttpStatus status = response.getErrors().isEmpty() ? HttpStatus.CREATED
+                : response.getCreated() > 0 ? HttpStatus.OK
+                : HttpStatus.BAD_REQUEST;
+        return ServerResponse.status(status).bodyValue(response);
+    }
+
+    // Stands in for @Valid @RequestBody, which functional endpoints do not have
+    private <T> Mono<T> body(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Request body is required")))
+                .doOnNext(body -> {
+                    Set<ConstraintViolation<T>> violations = validator.validate(body);
+                    if (!violations.isEmpty()) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violations.stream()
+                                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                                .sorted()
+                                .collect(Collectors.joining(", ")));
+                    }
+                });
+    }
+
+    private static Map<String, Object> project(TodoResponse todo, List<String> fields) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        for (String field : fields) {
+            item.put(field, switch (field) {
+                case "id" -> todo.getId();
+                case "title" -> todo.getTitle();
+                case "description" -> todo.getDescription();
+                case "completed" -> todo.getCompleted();
+                case "dueDate" -> todo.getDueDate();
+                case "createdAt" -> todo.getCreatedAt();
+                case "updatedAt" -> todo.getUpdatedAt();
+                case "version" -> todo.getVersion();
+                default -> throw new IllegalArgumentException("Unknown field: " + field);
+            });
+        }
+        return item;
+    }
+
+    private static UUID pathId(ServerRequest request) {
+        try {
+            return UUID.fromString(request.pathVariable("id"));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid id: " + request.pathVariable("id"));
+        }
+    }
+
+    private static Boolean booleanParam(ServerRequest request, String name) {
+        return request.queryParam(name).map(value -> switch (value) {
+            case "true" -> Boolean.TRUE;
+            case "false" -> Boolean.FALSE;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + name + ": " + value);
+        }).orElse(null);
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        return request.queryParam(name).map(value -> {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + name + ": " + value);
+            }
+        }).orElse(defaultValue);
+    }
+
+    private static Long expectedVersion(ServerRequest request) {
+        try {
+            return EntityTags.expectedVersion(request.headers().firstHeader(HttpHeaders.IF_MATCH));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static List<String> parseFields(String fields) {
+        try {
+            return TodoFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static TodoCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return TodoCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
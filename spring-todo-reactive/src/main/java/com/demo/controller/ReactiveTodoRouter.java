@@ -0,0 +1,51 @@
+package com.demo.controller;
+
+import com.demo.health.ReactiveHealthHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.util.Map;
+
+/**
+ * Functional routes for the same paths spring-todo maps with annotations. Specific paths come
+ * before /{id} and the bare collection routes, since the first matching route wins.
+ */
+@Configuration
+public class ReactiveTodoRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> todoRoutes(ReactiveTodoHandler handler) {
+        return RouterFunctions.route()
+                .path("/api/todos", todos -> todos
+                        .POST("/batch", RequestPredicates.contentType(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON),
+                                handler::createBatch)
+                        .GET("/stats", handler::stats)
+                        .GET("/{id}", handler::getById)
+                        .PUT("/{id}", handler::update)
+                        .PATCH("/{id}", handler::patch)
+                        .DELETE("/{id}", handler::delete)
+                        .POST(handler::create)
+                        .GET(handler::list)
+                        .PATCH(handler::patchAll)
+                        .DELETE(handler::deleteAll))
+                // A concurrent write won the version check during an unconditional PUT/PATCH
+                .onError(OptimisticLockingFailureException.class, (e, request) -> ServerResponse.status(HttpStatus.CONFLICT)
+                        .bodyValue(Map.of("status", 409, "detail", "Todo was modified concurrently, retry the request")))
+                .build();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> healthRoutes(ReactiveHealthHandler handler) {
+        return RouterFunctions.route()
+                .GET("/health/live", handler::liveness)
+                .GET("/health/ready", handler::readiness)
+                .build();
+    }
+}
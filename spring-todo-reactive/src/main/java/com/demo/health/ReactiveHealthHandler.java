@@ -0,0 +1,59 @@
+package com.demo.health;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * /health/live and /health/ready with the same responses as spring-todo's HealthController.
+ */
+@Component
+public class ReactiveHealthHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveHealthHandler.class);
+
+    private final DatabaseClient client;
+    private final long startTime = System.currentTimeMillis();
+
+    private volatile boolean ready = false;
+    private volatile long readyTime;
+
+    public ReactiveHealthHandler(DatabaseClient client) {
+        this.client = client;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        LOG.info("Application ready event received");
+
+        // DB接続確認
+        client.sql("SELECT 1").fetch().first().subscribe(row -> {
+            ready = true;
+            readyTime = System.currentTimeMillis();
+            LOG.info("APP_READY_MS={}", readyTime - startTime);
+        }, e -> LOG.error("Failed to connect to database", e));
+    }
+
+    public Mono<ServerResponse> liveness(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(Map.of("status", "UP"));
+    }
+
+    public Mono<ServerResponse> readiness(ServerRequest request) {
+        if (ready) {
+            return ServerResponse.ok().bodyValue(Map.of(
+                    "status", "UP",
+                    "startupTimeMs", readyTime - startTime
+            ));
+        }
+        return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).bodyValue(Map.of("status", "DOWN"));
+    }
+}
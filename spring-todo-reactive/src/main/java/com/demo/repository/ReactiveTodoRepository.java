@@ -0,0 +1,257 @@
+package com.demo.repository;
+
+import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoCursor;
+import com.demo.dto.TodoStatsResponse;
+import com.demo.entity.Todo;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.Statement;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Todo rows over R2DBC, as plain SQL against the table spring-todo's Hibernate mapping creates.
+ * Rows stream out of the driver as they are decoded; nothing here blocks a thread.
+ *
+ * <p>The conditional update and the delete use H2's OLD TABLE delta tables, as in spring-todo,
+ * so each is one statement that also returns the pre-image.
+ */
+@Repository
+public class ReactiveTodoRepository {
+
+    private static final String COLUMNS = "id, title, description, completed, due_date, created_at, updated_at, version";
+
+    private final DatabaseClient client;
+
+    public ReactiveTodoRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Mono<Todo> insert(Todo todo) {
+        GenericExecuteSpec spec = client.sql("INSERT INTO todos (" + COLUMNS + ") VALUES "
+                        + "(:id, :title, :description, :completed, :dueDate, :createdAt, :updatedAt, :version)")
+                .bind("id", todo.getId())
+                .bind("title", todo.getTitle())
+                .bind("completed", todo.getCompleted())
+                .bind("createdAt", timestamp(todo.getCreatedAt()))
+                .bind("updatedAt", timestamp(todo.getUpdatedAt()))
+                .bind("version", todo.getVersion());
+        spec = todo.getDescription() != null ? spec.bind("description", todo.getDescription())
+                : spec.bindNull("description", String.class);
+        spec = todo.getDueDate() != null ? spec.bind("dueDate", todo.getDueDate())
+                : spec.bindNull("dueDate", LocalDate.class);
+        return spec.then().thenReturn(todo);
+    }
+
+    /** One INSERT executed with a binding set per todo, so the chunk is a single round trip. */
+    public Mono<Void> insertAll(List<Todo> todos) {
+        return client.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement("INSERT INTO todos (" + COLUMNS + ") "
+                    + "VALUES ($1, $2, $3, $4, $5, $6, $7, $8)");
+            for (int i = 0; i < todos.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                Todo todo = todos.get(i);
+                statement.bind(0, todo.getId()).bind(1, todo.getTitle());
+                if (todo.getDescription() != null) {
+                    statement.bind(2, todo.getDescription());
+                } else {
+                    statement.bindNull(2, String.class);
+                }
+                statement.bind(3, todo.getCompleted());
+                if (todo.getDueDate() != null) {
+                    statement.bind(4, todo.getDueDate());
+                } else {
+                    statement.bindNull(4, LocalDate.class);
+                }
+                statement.bind(5, timestamp(todo.getCreatedAt()))
+                        .bind(6, timestamp(todo.getUpdatedAt()))
+                        .bind(7, todo.getVersion());
+            }
+            return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+        }).then();
+    }
+
+    /**
+     * Same filters and (updatedAt, id) ordering as spring-todo's findAll; a cursor switches from
+     * OFFSET paging to a keyset seek.
+     */
+    public Flux<Todo> findAll(Boolean completed, String query, TodoCursor cursor, int page, int size, boolean ascending) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM todos WHERE ");
+        where(sql, params, completed, query);
+        if (cursor != null) {
+            String op = ascending ? ">" : "<";
+            sql.append(" AND (updated_at ").append(op).append(" :cursorAt OR (updated_at = :cursorAt AND id ")
+                    .append(op).append(" :cursorId))");
+            params.put("cursorAt", timestamp(cursor.getUpdatedAt()));
+            params.put("cursorId", cursor.getId());
+        }
+        String direction = ascending ? "ASC" : "DESC";
+        // The filter pins completed, but H2 only reads the completed indexes in order (no sort step)
+        // when ORDER BY starts with their leading column, as in spring-todo's JpaTodoStore
+        sql.append(completed != null ? " ORDER BY completed, updated_at " : " ORDER BY updated_at ")
+                .append(direction).append(", id ").append(direction)
+                .append(" LIMIT :limit OFFSET :offset");
+        params.put("limit", size);
+        params.put("offset", cursor != null ? 0L : (long) page * size);
+        return bind(client.sql(sql.toString()), params)
+                .map((row, metadata) -> toTodo(row))
+                .all();
+    }
+
+    public Mono<Todo> findById(UUID id) {
+        return client.sql("SELECT " + COLUMNS + " FROM todos WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toTodo(row))
+                .one();
+    }
+
+    public Mono<Boolean> exists(UUID id) {
+        return client.sql("SELECT 1 FROM todos WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .first()
+                .hasElement();
+    }
+
+    /** Counts for GET /api/todos/stats in one aggregate scan. */
+    public Mono<TodoStatsResponse> stats(LocalDate today) {
+        return client.sql("SELECT COUNT(*) AS total, COUNT(CASE WHEN completed THEN 1 END) AS done, "
+                        + "COUNT(CASE WHEN NOT completed AND due_date < :today THEN 1 END) AS overdue FROM todos")
+                .bind("today", today)
+                .map((row, metadata) -> {
+                    long total = row.get("total", Long.class);
+                    long done = row.get("done", Long.class);
+                    return new TodoStatsResponse(total, total - done, done, row.get("overdue", Long.class));
+                })
+                .one();
+    }
+
+    /**
+     * Writes {@code values} (attribute to new value, null clears the column) only if the row still
+     * has {@code expectedVersion}, bumping the version and updatedAt.
+     *
+     * @return the row as it was before the update, or empty when the id or version did not match
+     */
+    public Mono<Todo> updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values, Instant now) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder set = new StringBuilder();
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            String column = column(value.getKey());
+            if (value.getValue() == null) {
+                set.append(column).append(" = NULL, ");
+            } else {
+                set.append(column).append(" = :").append(column).append(", ");
+                params.put(column, value.getValue());
+            }
+        }
+        set.append("updated_at = :now, version = version + 1");
+        params.put("now", timestamp(now));
+        params.put("id", id);
+        params.put("version", expectedVersion);
+
+        return bind(client.sql("SELECT " + COLUMNS + " FROM OLD TABLE (UPDATE todos SET " + set
+                        + " WHERE id = :id AND version = :version)"), params)
+                .map((row, metadata) -> toTodo(row))
+                .one();
+    }
+
+    public Mono<Long> updateAll(Boolean completed, String query, PatchTodoRequest changes) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder("UPDATE todos SET ");
+        if (changes.getTitle() != null) {
+            sql.append("title = :title, ");
+            params.put("title", changes.getTitle());
+        }
+        if (changes.getDescription() != null) {
+            sql.append("description = :description, ");
+            params.put("description", changes.getDescription());
+        }
+        if (changes.getCompleted() != null) {
+            sql.append("completed = :newCompleted, ");
+            params.put("newCompleted", changes.getCompleted());
+        }
+        if (changes.getDueDate() != null) {
+            sql.append("due_date = :dueDate, ");
+            params.put("dueDate", changes.getDueDate());
+        }
+        sql.append("updated_at = :now, version = version + 1 WHERE ");
+        params.put("now", timestamp(Instant.now().truncatedTo(ChronoUnit.MICROS)));
+        where(sql, params, completed, query);
+        return bind(client.sql(sql.toString()), params).fetch().rowsUpdated();
+    }
+
+    public Mono<Long> deleteAll(Boolean completed, String query) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder("DELETE FROM todos WHERE ");
+        where(sql, params, completed, query);
+        return bind(client.sql(sql.toString()), params).fetch().rowsUpdated();
+    }
+
+    /** @return the deleted row, or empty when there was none */
+    public Mono<Todo> deleteReturning(UUID id) {
+        return client.sql("SELECT " + COLUMNS + " FROM OLD TABLE (DELETE FROM todos WHERE id = :id)")
+                .bind("id", id)
+                .map((row, metadata) -> toTodo(row))
+                .one();
+    }
+
+    // The list filters of spring-todo's TodoSpecifications, as SQL
+    private static void where(StringBuilder sql, Map<String, Object> params, Boolean completed, String query) {
+        sql.append("1 = 1");
+        if (completed != null) {
+            sql.append(" AND completed = :completed");
+            params.put("completed", completed);
+        }
+        if (query != null && !query.trim().isEmpty()) {
+            sql.append(" AND LOWER(title) LIKE :query");
+            params.put("query", "%" + query.toLowerCase() + "%");
+        }
+    }
+
+    private static GenericExecuteSpec bind(GenericExecuteSpec spec, Map<String, Object> params) {
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec;
+    }
+
+    // Column for a writable Todo attribute; only dueDate is named differently
+    private static String column(String attribute) {
+        return "dueDate".equals(attribute) ? "due_date" : attribute;
+    }
+
+    // TIMESTAMP WITH TIME ZONE travels as OffsetDateTime in r2dbc-h2
+    private static OffsetDateTime timestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private static Todo toTodo(Row row) {
+        Todo todo = new Todo();
+        todo.setId(row.get("id", UUID.class));
+        todo.setTitle(row.get("title", String.class));
+        todo.setDescription(row.get("description", String.class));
+        todo.setCompleted(row.get("completed", Boolean.class));
+        todo.setDueDate(row.get("due_date", LocalDate.class));
+        todo.setCreatedAt(row.get("created_at", OffsetDateTime.class).toInstant());
+        todo.setUpdatedAt(row.get("updated_at", OffsetDateTime.class).toInstant());
+        todo.setVersion(row.get("version", Long.class));
+        return todo;
+    }
+}
@@ -0,0 +1,284 @@
+package com.demo.service;
+
+import com.demo.dto.BatchCreateResponse;
+import com.demo.dto.BatchItemError;
+import com.demo.dto.CreateTodoRequest;
+import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoCursor;
+import com.demo.dto.TodoResponse;
+import com.demo.dto.TodoStatsResponse;
+import com.demo.dto.UpdateTodoRequest;
+import com.demo.entity.TimeOrderedUuid;
+import com.demo.entity.Todo;
+import com.demo.repository.ReactiveTodoRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of spring-todo's TodoService for the same /api/todos contract.
+ * The list cache, the in-memory stats counters and the pluggable storage engines are not
+ * ported; every call goes to H2 through R2DBC.
+ *
+ * <p>An empty Mono from a single-todo method means the id does not exist.
+ */
+@Service
+public class ReactiveTodoService {
+
+    private final ReactiveTodoRepository repository;
+    private final Validator validator;
+    private final TransactionalOperator chunkTransaction;
+
+    @Value("${todo.batch.max-items:10000}")
+    private int batchMaxItems;
+
+    @Value("${todo.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    public ReactiveTodoService(ReactiveTodoRepository repository, Validator validator,
+                               ReactiveTransactionManager transactionManager) {
+        this.repository = repository;
+        this.validator = validator;
+        this.chunkTransaction = TransactionalOperator.create(transactionManager);
+    }
+
+    public Mono<TodoResponse> create(CreateTodoRequest request) {
+        return repository.insert(toEntity(request)).map(TodoResponse::new);
+    }
+
+    /**
+     * Validates every item, then inserts the valid ones in chunked transactions. A rejected item
+     * or a failed chunk is reported per index and does not abort the rest of the batch.
+     */
+    public Mono<BatchCreateResponse> createBatch(Flux<CreateTodoRequest> items) {
+        // One past the limit is enough to reject an oversized body without reading all of it
+        return items.take(batchMaxItems + 1L).collectList().flatMap(requests -> {
+            if (requests.size() > batchMaxItems) {
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Batch must not exceed " + batchMaxItems + " items"));
+            }
+            UUID[] ids = new UUID[requests.size()];
+            List<BatchItemError> errors = new ArrayList<>();
+            List<Integer> valid = new ArrayList<>();
+
+            for (int i = 0; i < requests.size(); i++) {
+                Set<ConstraintViolation<CreateTodoRequest>> violations = validator.validate(requests.get(i));
+                if (violations.isEmpty()) {
+                    valid.add(i);
+                } else {
+                    errors.add(new BatchItemError(i, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.toList())));
+                }
+            }
+
+            List<List<Integer>> chunks = new ArrayList<>();
+            for (int from = 0; from < valid.size(); from += batchChunkSize) {
+                chunks.add(valid.subList(from, Math.min(from + batchChunkSize, valid.size())));
+            }
+            return Flux.fromIterable(chunks)
+                    .concatMap(chunk -> insertChunk(requests, chunk, ids)
+                            .onErrorResume(e -> {
+                                for (Integer index : chunk) {
+                                    errors.add(new BatchItemError(index, List.of("Insert failed: " + e.getMessage())));
+                                }
+                                return Mono.just(0);
+                            }))
+                    .reduce(0, Integer::sum)
+                    .map(created -> {
+                        errors.sort(Comparator.comparingInt(BatchItemError::getIndex));
+                        return new BatchCreateResponse(Arrays.asList(ids), created, errors);
+                    });
+        });
+    }
+
+    private Mono<Integer> insertChunk(List<CreateTodoRequest> requests, List<Integer> chunk, UUID[] ids) {
+        List<Todo> todos = new ArrayList<>(chunk.size());
+        for (Integer index : chunk) {
+            todos.add(toEntity(requests.get(index)));
+        }
+        return repository.insertAll(todos)
+                .as(chunkTransaction::transactional)
+                .then(Mono.fromSupplier(() -> {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ids[chunk.get(i)] = todos.get(i).getId();
+                    }
+                    return chunk.size();
+                }));
+    }
+
+    public Flux<TodoResponse> findAll(Boolean completed, String query, TodoCursor cursor, int page, int size, String sort) {
+        return repository.findAll(completed, query, cursor, page, size, isAscending(sort)).map(TodoResponse::new);
+    }
+
+    public Mono<TodoResponse> findById(UUID id) {
+        return repository.findById(id).map(TodoResponse::new);
+    }
+
+    /** One aggregate query per call; the servlet app's in-memory counters are not ported. */
+    public Mono<TodoStatsResponse> stats() {
+        return repository.stats(LocalDate.now());
+    }
+
+    /**
+     * Full update. With an expected version (If-Match) this is one conditional UPDATE and the row is
+     * not read first; without one the row is read and written back conditionally on the version
+     * that was read, failing with 409 if another write got in between.
+     */
+    @Transactional
+    public Mono<TodoResponse> update(UUID id, UpdateTodoRequest request, Long expectedVersion) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("title", request.getTitle());
+        values.put("description", request.getDescription());
+        values.put("completed", request.getCompleted());
+        values.put("dueDate", request.getDueDate());
+        return write(id, expectedVersion, values, todo -> applyUpdate(todo, request));
+    }
+
+    /**
+     * Partial update, null fields are left untouched. Versions are checked as in {@link #update}.
+     */
+    @Transactional
+    public Mono<TodoResponse> patch(UUID id, PatchTodoRequest request, Long expectedVersion) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (request.getTitle() != null) {
+            values.put("title", request.getTitle());
+        }
+        if (request.getDescription() != null) {
+            values.put("description", request.getDescription());
+        }
+        if (request.getCompleted() != null) {
+            values.put("completed", request.getCompleted());
+        }
+        if (request.getDueDate() != null) {
+            values.put("dueDate", request.getDueDate());
+        }
+        return write(id, expectedVersion, values, todo -> applyPatch(todo, request));
+    }
+
+    private Mono<TodoResponse> write(UUID id, Long expectedVersion, Map<String, Object> values, Consumer<Todo> changes) {
+        if (expectedVersion != null) {
+            return updateIfVersion(id, expectedVersion, values, changes)
+                    .switchIfEmpty(Mono.defer(() -> repository.exists(id).flatMap(exists -> exists
+                            ? Mono.error(new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                                    "Todo " + id + " does not have version " + expectedVersion))
+                            : Mono.empty())));
+        }
+        return repository.findById(id).flatMap(current -> updateIfVersion(id, current.getVersion(), values, changes)
+                .switchIfEmpty(Mono.error(() -> new OptimisticLockingFailureException(
+                        "Todo " + id + " was modified concurrently"))));
+    }
+
+    private Mono<TodoResponse> updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values,
+                                               Consumer<Todo> changes) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        // The repository returns the pre-image; replay the same changes to build the new state
+        return repository.updateIfVersion(id, expectedVersion, values, now).map(todo -> {
+            changes.accept(todo);
+            todo.setUpdatedAt(now);
+            todo.setVersion(todo.getVersion() + 1);
+            return new TodoResponse(todo);
+        });
+    }
+
+    private static void applyUpdate(Todo todo, UpdateTodoRequest request) {
+        todo.setTitle(request.getTitle());
+        todo.setDescription(request.getDescription());
+        todo.setCompleted(request.getCompleted());
+        todo.setDueDate(request.getDueDate());
+    }
+
+    private static void applyPatch(Todo todo, PatchTodoRequest request) {
+        if (request.getTitle() != null) {
+            todo.setTitle(request.getTitle());
+        }
+        if (request.getDescription() != null) {
+            todo.setDescription(request.getDescription());
+        }
+        if (request.getCompleted() != null) {
+            todo.setCompleted(request.getCompleted());
+        }
+        if (request.getDueDate() != null) {
+            todo.setDueDate(request.getDueDate());
+        }
+    }
+
+    /**
+     * Set-based PATCH: one UPDATE for every todo matching the list filters.
+     */
+    public Mono<Integer> patchAll(Boolean completed, String query, PatchTodoRequest request) {
+        requireFilter(completed, query);
+        if (request.getTitle() == null && request.getDescription() == null
+                && request.getCompleted() == null && request.getDueDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one field to update is required");
+        }
+        return repository.updateAll(completed, query, request).map(Long::intValue);
+    }
+
+    /**
+     * Set-based DELETE: one DELETE for every todo matching the list filters.
+     */
+    public Mono<Integer> deleteAll(Boolean completed, String query) {
+        requireFilter(completed, query);
+        return repository.deleteAll(completed, query).map(Long::intValue);
+    }
+
+    /**
+     * Deletes without reading the row first.
+     *
+     * @return the deleted todo, or empty when there was none
+     */
+    public Mono<TodoResponse> delete(UUID id) {
+        return repository.deleteReturning(id).map(TodoResponse::new);
+    }
+
+    // Guards against an accidental unfiltered PATCH/DELETE of the whole table
+    private static void requireFilter(Boolean completed, String query) {
+        if (completed == null && (query == null || query.trim().isEmpty())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At least one filter (completed, q) is required");
+        }
+    }
+
+    private static boolean isAscending(String sort) {
+        return sort != null && sort.contains("updatedAt") && sort.contains("asc");
+    }
+
+    // The entity callbacks (@PrePersist) do not run without JPA, so ids and timestamps are set here
+    private static Todo toEntity(CreateTodoRequest request) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Todo todo = new Todo();
+        todo.setId(TimeOrderedUuid.next());
+        todo.setTitle(request.getTitle());
+        todo.setDescription(request.getDescription());
+        todo.setCompleted(request.getCompleted() != null ? request.getCompleted() : false);
+        todo.setDueDate(request.getDueDate());
+        todo.setCreatedAt(now);
+        todo.setUpdatedAt(now);
+        todo.setVersion(0L);
+        return todo;
+    }
+}
@@ -0,0 +1,17 @@
+-- Same table and indexes Hibernate generates for com.demo.entity.Todo in spring-todo
+DROP TABLE IF EXISTS todos;
+
+CREATE TABLE todos (
+    id UUID NOT NULL PRIMARY KEY,
+    title VARCHAR(120) NOT NULL,
+    description VARCHAR(1000),
+    completed BOOLEAN NOT NULL,
+    due_date DATE,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    version BIGINT NOT NULL
+);
+
+CREATE INDEX idx_todos_updated_at_id ON todos (updated_at DESC, id DESC);
+CREATE INDEX idx_todos_completed_updated_at_id ON todos (completed, updated_at DESC, id DESC);
+CREATE INDEX idx_todos_completed_updated_at_id_asc ON todos (completed, updated_at, id);
@@ -0,0 +1,44 @@
+package com.demo.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+/**
+ * Owns the JCache manager behind Hibernate's second-level cache so the Todo
+ * region can be bound to Micrometer (hits, misses, puts, evictions).
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // Must match @Cache(region) on Todo. Caffeine resolves a region as the config path
+    // caffeine.jcache.<region>, so a dotted name such as the entity class never finds its settings
+    public static final String TODO_REGION = "todos";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        return provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    @Bean
+    public MeterBinder todoRegionMetrics(CacheManager secondLevelCacheManager) {
+        // The region is declared in application.conf, so Caffeine creates it with its bounds on first lookup
+        Cache<Object, Object> region = secondLevelCacheManager.getCache(TODO_REGION);
+        return registry -> JCacheMetrics.monitor(registry, region);
+    }
+}
@@ -0,0 +1,40 @@
+package com.demo.controller;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.util.DisconnectedClientHelper;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Maps persistence exceptions thrown by TodoService to HTTP statuses.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> notFound(EntityNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("status", 404, "detail", e.getMessage()));
+    }
+
+    // A concurrent write won the version check during an unconditional PUT/PATCH
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> conflict(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("status", 409, "detail", "Todo was modified concurrently, retry the request"));
+    }
+
+    // A /stream client that went away; the container reports it again after the write already failed
+    @ExceptionHandler(IOException.class)
+    public void disconnected(IOException e) throws IOException {
+        if (!DisconnectedClientHelper.isClientDisconnectedException(e)) {
+            throw e;
+        }
+    }
+}
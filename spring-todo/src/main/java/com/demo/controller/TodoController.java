@@ -1,18 +1,38 @@
 package com.demo.controller;
 
+import com.demo.dto.BatchCreateResponse;
 import com.demo.dto.CreateTodoRequest;
 import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoChangesResponse;
+import com.demo.dto.TodoCursor;
+import com.demo.dto.TodoFields;
+import com.demo.dto.TodoImportResponse;
 import com.demo.dto.TodoResponse;
+import com.demo.dto.TodoSlice;
+import com.demo.dto.TodoStatsResponse;
 import com.demo.dto.UpdateTodoRequest;
+import com.demo.service.TodoEventStream;
 import com.demo.service.TodoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -20,50 +40,226 @@ import java.util.UUID;
 @Tag(name = "Todo", description = "Todo CRUD operations")
 public class TodoController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_CHANGES_LIMIT = 10000;
+
     private final TodoService todoService;
+    private final ObjectMapper objectMapper;
 
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService, ObjectMapper objectMapper) {
         this.todoService = todoService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
     @Operation(summary = "Create a new todo")
     public ResponseEntity<TodoResponse> create(@Valid @RequestBody CreateTodoRequest request) {
         TodoResponse response = todoService.create(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return withETag(ResponseEntity.status(HttpStatus.CREATED), response);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Create todos in bulk from a JSON array")
+    public ResponseEntity<BatchCreateResponse> createBatch(@RequestBody List<CreateTodoRequest> requests) {
+        return batchResponse(todoService.createBatch(requests));
+    }
+
+    @PostMapping(value = "/batch", consumes = NdjsonReader.MEDIA_TYPE)
+    @Operation(summary = "Create todos in bulk from NDJSON")
+    public ResponseEntity<BatchCreateResponse> createBatchNdjson(InputStream body) {
+        return batchResponse(todoService.createBatch(NdjsonReader.readAll(body, objectMapper, CreateTodoRequest.class)));
+    }
+
+    /**
+     * Imports an upload of any size: records are parsed and validated as the body arrives and
+     * inserted in chunked transactions, and reading pauses while the inserts are behind.
+     */
+    @PostMapping(value = "/import", consumes = {NdjsonReader.MEDIA_TYPE, TodoExportWriter.CSV_MEDIA_TYPE})
+    @Operation(summary = "Import todos from an NDJSON or CSV upload")
+    public ResponseEntity<TodoImportResponse> importTodos(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                          InputStream body) {
+        TodoExportWriter.Format format = MediaType.parseMediaType(contentType)
+                .isCompatibleWith(MediaType.valueOf(TodoExportWriter.CSV_MEDIA_TYPE))
+                ? TodoExportWriter.Format.CSV : TodoExportWriter.Format.NDJSON;
+        TodoImportReader rows;
+        try {
+            rows = TodoImportReader.open(format, body, objectMapper);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        TodoImportResponse response = todoService.importTodos(rows);
+        // Same statuses as a batch: 201 when everything was imported, 200 when some was, 400 when none was
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.CREATED
+                : response.getImported() > 0 ? HttpStatus.OK
+                : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
     }
 
     @GetMapping
-    @Operation(summary = "Get all todos")
-    public ResponseEntity<List<TodoResponse>> getAll(
+    @Operation(summary = "Get all todos, or 304 when If-None-Match carries the list ETag")
+    public ResponseEntity<List<?>> getAll(
             @RequestParam(required = false) Boolean completed,
             @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "updatedAt,desc") String sort) {
-        List<TodoResponse> todos = todoService.findAll(completed, q, page, size, sort);
-        return ResponseEntity.ok(todos);
+            @RequestParam(defaultValue = "updatedAt,desc") String sort,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        List<String> projection = parseFields(fields);
+        // Taken before the read, so the page is at least as new as its tag
+        String etag = EntityTags.ofList(todoService.listVersion());
+        if (EntityTags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        TodoSlice<?> slice = projection == null
+                ? todoService.findAll(completed, q, parseCursor(cursor), page, size, sort)
+                : todoService.findAllProjected(completed, q, parseCursor(cursor), page, size, sort, projection);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
+        if (slice.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, slice.getNextCursor());
+        }
+        return builder.body(slice.getItems());
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get open, completed and overdue counts")
+    public ResponseEntity<TodoStatsResponse> stats() {
+        return ResponseEntity.ok(todoService.stats());
+    }
+
+    /**
+     * Writes every todo matching the filters, most recently updated first, as NDJSON or CSV while
+     * it is read from the store. Writes block while the client is not reading, which holds the
+     * scan back, so memory stays flat however large the result is.
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Export the todos matching the filters as NDJSON or CSV")
+    public void export(
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        TodoExportWriter.Format exportFormat = parseFormat(format);
+        response.setContentType(exportFormat.mediaType + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(exportFormat.fileName()).build().toString());
+
+        TodoExportWriter writer = TodoExportWriter.open(exportFormat, response.getOutputStream(), objectMapper);
+        try {
+            todoService.export(completed, q, todo -> {
+                try {
+                    writer.write(todo);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+    }
+
+    /**
+     * Todos created or modified and ids deleted after {@code since}, plus the token for the next
+     * call; without {@code since}, only the current token. 410 means the token expired and the
+     * list has to be reloaded.
+     */
+    @GetMapping("/changes")
+    @Operation(summary = "Get the todos changed since a change token")
+    public ResponseEntity<TodoChangesResponse> changes(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "1000") int limit) {
+        if (limit < 1 || limit > MAX_CHANGES_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_CHANGES_LIMIT);
+        }
+        return ResponseEntity.ok(todoService.changesSince(since, limit));
+    }
+
+    /**
+     * Server-Sent Events {@code created}, {@code updated} (data: the todo) and {@code deleted}
+     * (data: its id) for changes committed while connected, and {@code resync} when changes were
+     * missed and the list has to be reloaded. Nothing is replayed on reconnect: clients reload then.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream todo changes as Server-Sent Events")
+    public SseEmitter stream() {
+        // Never times out; heartbeats find connections that went away
+        SseEmitter emitter = new SseEmitter(0L);
+        Runnable cancel = todoService.subscribe(new TodoEventStream.Sink() {
+            @Override
+            public void send(String name, Object data) throws IOException {
+                emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(error -> cancel.run());
+        return emitter;
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get a todo by ID")
-    public ResponseEntity<TodoResponse> getById(@PathVariable UUID id) {
-        TodoResponse response = todoService.findById(id);
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Get a todo by ID, or 304 when If-None-Match carries its ETag")
+    public ResponseEntity<TodoResponse> getById(@PathVariable UUID id,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            // Only the version is read while the client's copy is current
+            String etag = EntityTags.of(todoService.findVersion(id));
+            if (EntityTags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+        return withETag(ResponseEntity.ok(), todoService.findById(id));
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Update a todo")
-    public ResponseEntity<TodoResponse> update(@PathVariable UUID id, @Valid @RequestBody UpdateTodoRequest request) {
-        TodoResponse response = todoService.update(id, request);
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Update a todo, conditionally when If-Match carries its ETag")
+    public ResponseEntity<TodoResponse> update(@PathVariable UUID id,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @Valid @RequestBody UpdateTodoRequest request) {
+        return withETag(ResponseEntity.ok(), todoService.update(id, request, expectedVersion(ifMatch)));
     }
 
     @PatchMapping("/{id}")
-    @Operation(summary = "Partially update a todo")
-    public ResponseEntity<TodoResponse> patch(@PathVariable UUID id, @Valid @RequestBody PatchTodoRequest request) {
-        TodoResponse response = todoService.patch(id, request);
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Partially update a todo, conditionally when If-Match carries its ETag")
+    public ResponseEntity<TodoResponse> patch(@PathVariable UUID id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @Valid @RequestBody PatchTodoRequest request) {
+        return withETag(ResponseEntity.ok(), todoService.patch(id, request, expectedVersion(ifMatch)));
+    }
+
+    @PatchMapping
+    @Operation(summary = "Partially update all todos matching the filters")
+    public ResponseEntity<Map<String, Integer>> patchAll(
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String q,
+            @Valid @RequestBody PatchTodoRequest request) {
+        return ResponseEntity.ok(Map.of("affected", todoService.patchAll(completed, q, request)));
+    }
+
+    @DeleteMapping
+    @Operation(summary = "Delete all todos matching the filters")
+    public ResponseEntity<Map<String, Integer>> deleteAll(
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String q) {
+        return ResponseEntity.ok(Map.of("affected", todoService.deleteAll(completed, q)));
     }
 
     @DeleteMapping("/{id}")
@@ -72,4 +268,51 @@ public class TodoController {
         todoService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<TodoResponse> withETag(ResponseEntity.BodyBuilder builder, TodoResponse todo) {
+        return builder.eTag(EntityTags.of(todo)).varyBy(HttpHeaders.ACCEPT).body(todo);
+    }
+
+    private static Long expectedVersion(String ifMatch) {
+        try {
+            return EntityTags.expectedVersion(ifMatch);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<BatchCreateResponse> batchResponse(BatchCreateResponse response) {
+        // 201 when everything was created, 200 for a partial batch, 400 when nothing was
+        HttpStatus status = response.getErrors().isEmpty() ? HttpStatus.CREATED
+                : response.getCreated() > 0 ? HttpStatus.OK
+                : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private static List<String> parseFields(String fields) {
+        try {
+            return TodoFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static TodoExportWriter.Format parseFormat(String format) {
+        try {
+            return TodoExportWriter.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static TodoCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return TodoCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.demo.controller;
+
+import com.demo.dto.TodoResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Writes exported todos one at a time: NDJSON, one TodoResponse per line, or CSV with a header
+ * row and RFC 4180 quoting. Nothing is kept after a row is written.
+ */
+final class TodoExportWriter {
+
+    static final String CSV_MEDIA_TYPE = "text/csv";
+
+    enum Format {
+        NDJSON(NdjsonReader.MEDIA_TYPE),
+        CSV(CSV_MEDIA_TYPE);
+
+        final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        static Format parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("format must be ndjson or csv");
+            }
+        }
+
+        String fileName() {
+            return "todos." + name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    static final String[] CSV_COLUMNS = {"id", "title", "description", "completed", "dueDate", "createdAt", "updatedAt", "version"};
+
+    private final Format format;
+    private final Writer out;
+    private final ObjectMapper mapper;
+
+    private TodoExportWriter(Format format, OutputStream out, ObjectMapper mapper) {
+        this.format = format;
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.mapper = mapper;
+    }
+
+    static TodoExportWriter open(Format format, OutputStream out, ObjectMapper mapper) throws IOException {
+        TodoExportWriter writer = new TodoExportWriter(format, out, mapper);
+        if (format == Format.CSV) {
+            writer.out.write(String.join(",", CSV_COLUMNS));
+            writer.out.write("\r\n");
+        }
+        return writer;
+    }
+
+    void write(TodoResponse todo) throws IOException {
+        if (format == Format.NDJSON) {
+            out.write(mapper.writeValueAsString(todo));
+            out.write('\n');
+            return;
+        }
+        Object[] values = {todo.getId(), todo.getTitle(), todo.getDescription(), todo.getCompleted(),
+                todo.getDueDate(), todo.getCreatedAt(), todo.getUpdatedAt(), todo.getVersion()};
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            if (values[i] != null) {
+                writeCsvField(values[i].toString());
+            }
+        }
+        out.write("\r\n");
+    }
+
+    /** Writes out what is still buffered; the underlying stream stays open. */
+    void finish() throws IOException {
+        out.flush();
+    }
+
+    /** Quotes the empty string too, since the importer reads a bare empty field as null. */
+    private void writeCsvField(String value) throws IOException {
+        boolean quote = value.isEmpty() || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
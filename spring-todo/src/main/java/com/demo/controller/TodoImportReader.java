@@ -0,0 +1,207 @@
+package com.demo.controller;
+
+import com.demo.dto.CreateTodoRequest;
+import com.demo.service.TodoService.ImportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Parses an import upload one record at a time while it is read, as NDJSON (one
+ * CreateTodoRequest per line) or CSV (RFC 4180, a header row naming the columns). CSV columns
+ * other than title, description, completed and dueDate are ignored, so an export reads back in.
+ * Blank lines are skipped; a record that does not parse becomes a row carrying the reason.
+ */
+final class TodoImportReader implements Iterator<ImportRow> {
+
+    private final TodoExportWriter.Format format;
+    private final BufferedReader in;
+    private final ObjectMapper mapper;
+
+    private int lineNumber;
+    // CSV column positions, -1 when absent
+    private int titleColumn = -1;
+    private int descriptionColumn = -1;
+    private int completedColumn = -1;
+    private int dueDateColumn = -1;
+
+    private ImportRow next;
+
+    private TodoImportReader(TodoExportWriter.Format format, InputStream body, ObjectMapper mapper) {
+        this.format = format;
+        this.in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.mapper = mapper;
+    }
+
+    /** Fails with IllegalArgumentException when a CSV upload has no header row with a title column. */
+    static TodoImportReader open(TodoExportWriter.Format format, InputStream body, ObjectMapper mapper) {
+        TodoImportReader reader = new TodoImportReader(format, body, mapper);
+        if (format == TodoExportWriter.Format.CSV) {
+            reader.readHeader();
+        }
+        return reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = format == TodoExportWriter.Format.NDJSON ? readNdjson() : readCsv();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public ImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ImportRow row = next;
+        next = null;
+        return row;
+    }
+
+    private ImportRow readNdjson() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                return new ImportRow(lineNumber, mapper.readValue(line, CreateTodoRequest.class), null);
+            } catch (IOException e) {
+                return new ImportRow(lineNumber, null, "Malformed item");
+            }
+        }
+        return null;
+    }
+
+    private void readHeader() {
+        List<String> header;
+        try {
+            header = readCsvRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int i = 0; header != null && i < header.size(); i++) {
+            String column = header.get(i) == null ? "" : header.get(i).trim();
+            switch (column) {
+                case "title" -> titleColumn = i;
+                case "description" -> descriptionColumn = i;
+                case "completed" -> completedColumn = i;
+                case "dueDate" -> dueDateColumn = i;
+                default -> {
+                    // not imported
+                }
+            }
+        }
+        if (titleColumn < 0) {
+            throw new IllegalArgumentException("CSV header row must name a title column");
+        }
+    }
+
+    private ImportRow readCsv() throws IOException {
+        List<String> fields;
+        int line;
+        do {
+            line = lineNumber + 1;
+            fields = readCsvRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0) == null);
+
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setTitle(field(fields, titleColumn));
+        request.setDescription(field(fields, descriptionColumn));
+        String completed = field(fields, completedColumn);
+        if (completed != null) {
+            if (!completed.equalsIgnoreCase("true") && !completed.equalsIgnoreCase("false")) {
+                return new ImportRow(line, null, "Invalid completed: " + completed);
+            }
+            request.setCompleted(Boolean.parseBoolean(completed.toLowerCase(Locale.ROOT)));
+        }
+        String dueDate = field(fields, dueDateColumn);
+        if (dueDate != null) {
+            try {
+                request.setDueDate(LocalDate.parse(dueDate));
+            } catch (DateTimeParseException e) {
+                return new ImportRow(line, null, "Invalid dueDate: " + dueDate);
+            }
+        }
+        return new ImportRow(line, request, null);
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+
+    /**
+     * Reads one record, which spans several lines when a quoted field contains line breaks.
+     * An empty unquoted field is null, {@code ""} is the empty string. Returns null at the end.
+     */
+    private List<String> readCsvRecord() throws IOException {
+        int c = in.read();
+        if (c < 0) {
+            return null;
+        }
+        lineNumber++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (c >= 0) {
+            char ch = (char) c;
+            if (inQuotes) {
+                if (ch == '"') {
+                    c = in.read();
+                    if (c == '"') {
+                        field.append('"');
+                        c = in.read();
+                    } else {
+                        inQuotes = false;
+                    }
+                    continue;
+                }
+                if (ch == '\n') {
+                    lineNumber++;
+                }
+                field.append(ch);
+            } else if (ch == '"' && field.length() == 0 && !quoted) {
+                quoted = true;
+                inQuotes = true;
+            } else if (ch == ',') {
+                fields.add(value(field, quoted));
+                field.setLength(0);
+                quoted = false;
+            } else if (ch == '\n') {
+                break;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+            c = in.read();
+        }
+        fields.add(value(field, quoted));
+        return fields;
+    }
+
+    private static String value(StringBuilder field, boolean quoted) {
+        return field.length() == 0 && !quoted ? null : field.toString();
+    }
+}
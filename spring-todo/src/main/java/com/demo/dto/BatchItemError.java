@@ -0,0 +1,34 @@
+package com.demo.dto;
+
+import java.util.List;
+
+public class BatchItemError {
+
+    private int index;
+    private List<String> messages;
+
+    public BatchItemError() {
+    }
+
+    public BatchItemError(int index, List<String> messages) {
+        this.index = index;
+        this.messages = messages;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<String> messages) {
+        this.messages = messages;
+    }
+}
@@ -0,0 +1,60 @@
+package com.demo.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Todos created or modified after a change token, ids deleted after it, and the token to pass next.
+ */
+public class TodoChangesResponse {
+
+    // Latest state of each todo changed since the token, oldest change first
+    private List<TodoResponse> changed;
+    private List<UUID> deleted;
+    private String token;
+    // More changes follow the token; request again right away
+    private boolean more;
+
+    public TodoChangesResponse() {
+    }
+
+    public TodoChangesResponse(List<TodoResponse> changed, List<UUID> deleted, String token, boolean more) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.token = token;
+        this.more = more;
+    }
+
+    // Getters and Setters
+    public List<TodoResponse> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<TodoResponse> changed) {
+        this.changed = changed;
+    }
+
+    public List<UUID> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<UUID> deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public boolean isMore() {
+        return more;
+    }
+
+    public void setMore(boolean more) {
+        this.more = more;
+    }
+}
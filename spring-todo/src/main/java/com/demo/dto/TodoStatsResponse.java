@@ -0,0 +1,53 @@
+package com.demo.dto;
+
+public class TodoStatsResponse {
+
+    private long total;
+    private long open;
+    private long completed;
+    // Open todos whose dueDate is before today
+    private long overdue;
+
+    public TodoStatsResponse() {
+    }
+
+    public TodoStatsResponse(long total, long open, long completed, long overdue) {
+        this.total = total;
+        this.open = open;
+        this.completed = completed;
+        this.overdue = overdue;
+    }
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getOpen() {
+        return open;
+    }
+
+    public void setOpen(long open) {
+        this.open = open;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public long getOverdue() {
+        return overdue;
+    }
+
+    public void setOverdue(long overdue) {
+        this.overdue = overdue;
+    }
+}
@@ -1,12 +1,25 @@
 package com.demo.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 @Entity
-@Table(name = "todos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "todos")
+@Table(name = "todos", indexes = {
+        // Default list shape: ORDER BY updatedAt DESC, id DESC (page and cursor modes)
+        @Index(name = "idx_todos_updated_at_id", columnList = "updated_at DESC, id DESC"),
+        // Filtered list shape: WHERE completed = ? ORDER BY completed, updatedAt DESC, id DESC
+        @Index(name = "idx_todos_completed_updated_at_id", columnList = "completed, updated_at DESC, id DESC"),
+        // Same with sort=updatedAt,asc; H2 cannot read the one above backwards under completed = ?
+        @Index(name = "idx_todos_completed_updated_at_id_asc", columnList = "completed, updated_at, id")
+})
 public class Todo {
 
     @Id
@@ -21,27 +34,36 @@ public class Todo {
     @Column(nullable = false)
     private Boolean completed = false;
 
-    @Column
+    @Column(name = "due_date")
     private LocalDate dueDate;
 
-    @Column(nullable = false, updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
-    @Column(nullable = false)
+    @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         if (id == null) {
-            id = UUID.randomUUID();
+            id = TimeOrderedUuid.next();
         }
-        createdAt = Instant.now();
-        updatedAt = Instant.now();
+        createdAt = now();
+        updatedAt = createdAt;
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = Instant.now();
+        updatedAt = now();
+    }
+
+    // The columns hold microseconds; events and keyset cursors must carry the value stored
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     // Getters and Setters
@@ -100,4 +122,12 @@ public class Todo {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,66 @@
+package com.demo.event;
+
+import com.demo.dto.TodoResponse;
+
+import java.util.UUID;
+
+/**
+ * Fired by TodoService for every committed write. Observers that keep derived
+ * state (caches, counters, streams) react after the transaction succeeds.
+ */
+public class TodoChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /** Set-based write whose affected rows are not individually known. */
+        BULK
+    }
+
+    private final Type type;
+    private final UUID id;
+    private final TodoResponse before;
+    private final TodoResponse after;
+
+    private TodoChangedEvent(Type type, UUID id, TodoResponse before, TodoResponse after) {
+        this.type = type;
+        this.id = id;
+        this.before = before;
+        this.after = after;
+    }
+
+    public static TodoChangedEvent created(TodoResponse after) {
+        return new TodoChangedEvent(Type.CREATED, after.getId(), null, after);
+    }
+
+    public static TodoChangedEvent updated(TodoResponse before, TodoResponse after) {
+        return new TodoChangedEvent(Type.UPDATED, after.getId(), before, after);
+    }
+
+    public static TodoChangedEvent deleted(UUID id, TodoResponse before) {
+        return new TodoChangedEvent(Type.DELETED, id, before, null);
+    }
+
+    public static TodoChangedEvent bulk() {
+        return new TodoChangedEvent(Type.BULK, null, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    /** State before the write, or null for creates, bulk writes and unknown prior state. */
+    public TodoResponse getBefore() {
+        return before;
+    }
+
+    /** State after the write, or null for deletes and bulk writes. */
+    public TodoResponse getAfter() {
+        return after;
+    }
+}
@@ -0,0 +1,99 @@
+package com.demo.health;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Reports carrier-thread pinning while Tomcat serves requests on virtual threads
+ * ({@code spring.threads.virtual.enabled=true}).
+ *
+ * <p>A virtual thread that blocks inside a synchronized block or a native frame cannot unmount,
+ * so it holds its carrier thread (one per core by default) for the whole wait. The JDK emits
+ * a {@code jdk.VirtualThreadPinned} JFR event for such waits; this streams them into the
+ * {@code todo.virtual-threads.pinned} timer, tagged with the first non-JDK frame on the stack,
+ * which is normally the library method holding the monitor.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinnedThreadMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final MeterRegistry registry;
+    private final Duration threshold;
+
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(MeterRegistry registry,
+                               @Value("${todo.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        this.registry = registry;
+        this.threshold = threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!FlightRecorder.isAvailable()) {
+            // Native images built without --enable-monitoring=jfr
+            LOG.info("JFR is not available; virtual thread pinning is not reported");
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+        stream = recording;
+        LOG.info("Reporting virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        String frame = culprit(event.getStackTrace());
+        Timer.builder("todo.virtual-threads.pinned")
+                .description("Time virtual threads blocked while pinned to their carrier thread")
+                .tag("frame", frame)
+                .register(registry)
+                .record(event.getDuration());
+        LOG.debug("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), frame);
+    }
+
+    /** The innermost application or library frame; the JDK frames above it are the park itself. */
+    static String culprit(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+}
@@ -0,0 +1,232 @@
+package com.demo.readmodel;
+
+import com.demo.dto.TodoCursor;
+import com.demo.dto.TodoResponse;
+import com.demo.event.TodoChangedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Column-per-attribute copy of the todos table. A todo lives in one slot across all columns;
+ * the filter columns are bitsets ({@code live}, {@code completed}) and the sort key is split into
+ * plain longs, so a list query is a few passes of {@link ColumnScan} kernels over dense arrays
+ * followed by a top-k selection, and only the rows on the page are touched as objects.
+ *
+ * <p>Slots freed by deletes are reused. Not thread-safe; {@link TodoReadModel} holds its lock.
+ */
+final class TodoColumns {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Deletes remembered; the stale events they guard against are at most a few commits late
+    private static final int MAX_TOMBSTONES = 4096;
+
+    private int capacity = INITIAL_CAPACITY;
+    // Slots in use or freed so far; scans stop here
+    private int high;
+    private int[] free = new int[64];
+    private int freeCount;
+
+    private long[] updatedAt = new long[INITIAL_CAPACITY];
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private byte[][] titles = new byte[INITIAL_CAPACITY][];
+    private TodoResponse[] rows = new TodoResponse[INITIAL_CAPACITY];
+    private long[] live = new long[INITIAL_CAPACITY / 64];
+    private long[] completed = new long[INITIAL_CAPACITY / 64];
+
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    // Recently deleted ids, so an update event delivered after the delete's cannot bring the row
+    // back. Such an event comes from a commit that finished before the delete's while its listener
+    // was still running, so only the latest deletes need a tombstone and the oldest are dropped.
+    private final Set<UUID> deleted = Collections.newSetFromMap(new LinkedHashMap<UUID, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+            return size() > MAX_TOMBSTONES;
+        }
+    });
+
+    int size() {
+        return slots.size();
+    }
+
+    void apply(TodoChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED, UPDATED -> put(event.getAfter());
+            case DELETED -> delete(event.getId());
+            case BULK -> throw new IllegalArgumentException("Bulk changes need a rebuild");
+        }
+    }
+
+    /** Stores {@code todo} unless a newer version of it, or its delete, is already here. */
+    void put(TodoResponse todo) {
+        UUID id = todo.getId();
+        if (deleted.contains(id)) {
+            return;
+        }
+        Integer existing = slots.get(id);
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            if (rows[slot].getVersion() >= todo.getVersion()) {
+                return;
+            }
+        } else {
+            slot = allocate();
+            slots.put(id, slot);
+            set(live, slot, true);
+        }
+        updatedAt[slot] = sortKey(todo.getUpdatedAt());
+        idHigh[slot] = id.getMostSignificantBits();
+        idLow[slot] = id.getLeastSignificantBits();
+        titles[slot] = todo.getTitle() == null ? new byte[0] : lowerCase(todo.getTitle());
+        rows[slot] = todo;
+        set(completed, slot, Boolean.TRUE.equals(todo.getCompleted()));
+    }
+
+    void delete(UUID id) {
+        deleted.add(id);
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        set(live, slot, false);
+        set(completed, slot, false);
+        titles[slot] = null;
+        rows[slot] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * One page in (updatedAt, id) order, ids comparing as unsigned bytes like H2's UUID order;
+     * the same rows the JPA engine returns for these arguments.
+     */
+    List<TodoResponse> query(ColumnScan scan, Boolean completedFilter, byte[] needle, TodoCursor cursor,
+                             int skip, int limit, boolean ascending) {
+        if (limit <= 0 || slots.isEmpty()) {
+            return List.of();
+        }
+        int words = words(high);
+        long[] mask = new long[words];
+        if (completedFilter == null) {
+            System.arraycopy(live, 0, mask, 0, words);
+        } else {
+            scan.and(live, completed, !completedFilter, mask, words);
+        }
+
+        if (cursor != null) {
+            long[] beyond = new long[words];
+            long[] tied = new long[words];
+            scan.compare(updatedAt, high, sortKey(cursor.getUpdatedAt()), ascending, beyond, tied);
+            // Rows sharing the cursor's timestamp continue by id
+            long cursorHigh = cursor.getId().getMostSignificantBits();
+            long cursorLow = cursor.getId().getLeastSignificantBits();
+            for (int w = 0; w < words; w++) {
+                long bits = tied[w] & mask[w];
+                while (bits != 0) {
+                    int slot = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    int order = compareId(idHigh[slot], idLow[slot], cursorHigh, cursorLow);
+                    if (ascending ? order > 0 : order < 0) {
+                        beyond[w] |= 1L << slot;
+                    }
+                    bits &= bits - 1;
+                }
+            }
+            scan.and(mask, beyond, false, mask, words);
+        }
+
+        // Keeps the first skip + limit rows in page order; the head is the last of them
+        int wanted = (int) Math.min((long) skip + limit, slots.size());
+        PriorityQueue<Integer> page = new PriorityQueue<>(wanted + 1,
+                ascending ? (a, b) -> compare(b, a) : this::compare);
+        for (int w = 0; w < words; w++) {
+            long bits = mask[w];
+            while (bits != 0) {
+                int slot = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (needle != null && !scan.contains(titles[slot], needle)) {
+                    continue;
+                }
+                if (page.size() < wanted) {
+                    page.add(slot);
+                } else if (ascending ? compare(slot, page.peek()) < 0 : compare(slot, page.peek()) > 0) {
+                    page.poll();
+                    page.add(slot);
+                }
+            }
+        }
+        if (page.size() <= skip) {
+            return List.of();
+        }
+        int[] ordered = new int[page.size()];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            ordered[i] = page.poll();
+        }
+        List<TodoResponse> result = new ArrayList<>(ordered.length - skip);
+        for (int i = skip; i < ordered.length; i++) {
+            result.add(rows[ordered[i]]);
+        }
+        return result;
+    }
+
+    static byte[] lowerCase(String text) {
+        return text.toLowerCase().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int compare(int a, int b) {
+        int order = Long.compare(updatedAt[a], updatedAt[b]);
+        return order != 0 ? order : compareId(idHigh[a], idLow[a], idHigh[b], idLow[b]);
+    }
+
+    private static int compareId(long aHigh, long aLow, long bHigh, long bLow) {
+        int order = Long.compareUnsigned(aHigh, bHigh);
+        return order != 0 ? order : Long.compareUnsigned(aLow, bLow);
+    }
+
+    // Epoch nanoseconds; a long covers the years 1678 to 2262
+    private static long sortKey(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return free[--freeCount];
+        }
+        if (high == capacity) {
+            capacity *= 2;
+            updatedAt = Arrays.copyOf(updatedAt, capacity);
+            idHigh = Arrays.copyOf(idHigh, capacity);
+            idLow = Arrays.copyOf(idLow, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+            live = Arrays.copyOf(live, capacity / 64);
+            completed = Arrays.copyOf(completed, capacity / 64);
+        }
+        return high++;
+    }
+
+    private static int words(int slots) {
+        return (slots + 63) >>> 6;
+    }
+
+    private static void set(long[] bits, int slot, boolean value) {
+        if (value) {
+            bits[slot >>> 6] |= 1L << slot;
+        } else {
+            bits[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.demo.readmodel;
+
+import com.demo.dto.TodoCursor;
+import com.demo.dto.TodoResponse;
+import com.demo.entity.Todo;
+import com.demo.event.TodoChangedEvent;
+import com.demo.store.TodoStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional query side for GET /api/todos ({@code todo.read-model.enabled}): a columnar copy of
+ * the todos ({@link TodoColumns}) kept current from committed writes, so list pages are served
+ * by scanning memory instead of querying the database.
+ *
+ * <p>The copy is loaded at startup on a background thread, reading the store page by page in
+ * keyset order. Changes committed meanwhile are queued and replayed over the loaded rows, where
+ * the version check drops the ones the load already saw. Bulk writes, whose rows are not known,
+ * throw the copy away and load it again. While there is no complete copy, {@link #findAll}
+ * returns empty and the caller reads the store.
+ *
+ * <p>The copy reflects writes once their transaction has committed and its listeners have run,
+ * as the list cache does; it never shows uncommitted state.
+ */
+@Component
+public class TodoReadModel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TodoReadModel.class);
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final TodoStore todoStore;
+    private final boolean enabled;
+    private final ColumnScan scan = ColumnScan.create();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("todo-read-model").daemon().factory());
+
+    // Guarded by lock. columns is null until a load completes; loading is the copy being loaded
+    private TodoColumns columns;
+    private TodoColumns loading;
+    private final List<TodoChangedEvent> missed = new ArrayList<>();
+
+    private final Counter served;
+    private final Counter fallbacks;
+
+    public TodoReadModel(TodoStore todoStore, MeterRegistry registry,
+                         @Value("${todo.read-model.enabled:false}") boolean enabled) {
+        this.todoStore = todoStore;
+        this.enabled = enabled;
+        served = registry.counter("todo.read-model.queries", "result", "served");
+        fallbacks = registry.counter("todo.read-model.queries", "result", "fallback");
+        Gauge.builder("todo.read-model.rows", this, TodoReadModel::size).register(registry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            LOG.info("Loading the list read model ({} kernels)", scan.name());
+            reload();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * The list page for these arguments, or empty when the read model is disabled or still
+     * loading. Same filters and order as {@link TodoStore#findAll}; {@code q} matches titles only.
+     */
+    public Optional<List<TodoResponse>> findAll(Boolean completed, String query, TodoCursor cursor,
+                                                int page, int size, String sort) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        byte[] needle = query == null || query.trim().isEmpty() ? null : TodoColumns.lowerCase(query);
+        int skip = cursor != null ? 0 : Math.multiplyExact(page, size);
+        lock.readLock().lock();
+        try {
+            if (columns == null) {
+                fallbacks.increment();
+                return Optional.empty();
+            }
+            served.increment();
+            return Optional.of(columns.query(scan, completed, needle, cursor, skip, size, isAscending(sort)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ahead of TodoListCache, so a list page cached after its generation bump already sees the write
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.getType() == TodoChangedEvent.Type.BULK) {
+                columns = null;
+                reload();
+                return;
+            }
+            if (columns != null) {
+                columns.apply(event);
+            }
+            if (loading != null) {
+                missed.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reload() {
+        TodoColumns next = new TodoColumns();
+        lock.writeLock().lock();
+        try {
+            // Supersedes a load still running: its result will not be installed
+            loading = next;
+            missed.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        loader.execute(() -> load(next));
+    }
+
+    private void load(TodoColumns next) {
+        long started = System.nanoTime();
+        try {
+            TodoCursor cursor = null;
+            List<Todo> page;
+            do {
+                page = todoStore.findAll(null, null, cursor, 0, LOAD_PAGE_SIZE, "updatedAt,asc");
+                lock.writeLock().lock();
+                try {
+                    if (loading != next) {
+                        return;
+                    }
+                    for (Todo todo : page) {
+                        next.put(new TodoResponse(todo));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!page.isEmpty()) {
+                    Todo last = page.get(page.size() - 1);
+                    cursor = new TodoCursor(last.getUpdatedAt(), last.getId());
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+
+            lock.writeLock().lock();
+            try {
+                if (loading != next) {
+                    return;
+                }
+                for (TodoChangedEvent event : missed) {
+                    next.apply(event);
+                }
+                missed.clear();
+                loading = null;
+                columns = next;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOG.info("List read model loaded: {} todos in {} ms",
+                    next.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Lists keep reading the store; the next bulk write or restart tries again
+            LOG.warn("Loading the list read model failed", e);
+            lock.writeLock().lock();
+            try {
+                if (loading == next) {
+                    loading = null;
+                    missed.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private double size() {
+        lock.readLock().lock();
+        try {
+            return columns != null ? columns.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isAscending(String sort) {
+        return sort != null && sort.contains("updatedAt") && sort.contains("asc");
+    }
+}
@@ -3,10 +3,20 @@ package com.demo.repository;
 import com.demo.entity.Todo;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, UUID>, JpaSpecificationExecutor<Todo> {
+public interface TodoRepository extends JpaRepository<Todo, UUID>, JpaSpecificationExecutor<Todo>, TodoRepositoryCustom {
+
+    /** Row counts per (completed, dueDate) in one aggregate scan; rows are [Boolean, LocalDate, Long]. */
+    @Query("SELECT t.completed, t.dueDate, COUNT(t) FROM Todo t GROUP BY t.completed, t.dueDate")
+    List<Object[]> countByCompletedAndDueDate();
+
+    @Query("SELECT t.version FROM Todo t WHERE t.id = :id")
+    Optional<Long> findVersionById(UUID id);
 }
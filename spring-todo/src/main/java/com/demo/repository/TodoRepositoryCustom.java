@@ -0,0 +1,57 @@
+package com.demo.repository;
+
+import com.demo.dto.PatchTodoRequest;
+import com.demo.entity.Todo;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Hand-written queries that Spring Data cannot derive.
+ */
+public interface TodoRepositoryCustom {
+
+    /**
+     * Selects only the given attributes (plus the id/updatedAt keyset) of the todos matching
+     * {@code spec}, ordered by {@code sort}, so unrequested columns such as description are never read.
+     */
+    List<Tuple> findAllProjected(Specification<Todo> spec, Sort sort, List<String> attributes, int offset, int limit);
+
+    /**
+     * Streams the todos matching {@code spec}, in {@code sort} order, to {@code action} from one
+     * read-only cursor fetching {@code fetchSize} rows per round trip. Each row is detached before
+     * it is passed on and bypasses the second-level cache, so memory stays flat however many
+     * rows there are. The transaction and its connection stay open until the scan ends.
+     */
+    void streamAll(Specification<Todo> spec, Sort sort, int fetchSize, Consumer<Todo> action);
+
+    /**
+     * Applies the non-null fields of {@code changes} to every todo matching {@code spec}
+     * in a single UPDATE statement.
+     */
+    int updateAll(Specification<Todo> spec, PatchTodoRequest changes);
+
+    /**
+     * Single-statement optimistic update: {@code UPDATE ... WHERE id = ? AND version = ?}.
+     * The pre-image comes back from H2's OLD TABLE delta in the same round trip, so the row is
+     * never read before it is written. Attributes mapped to null are set to NULL.
+     *
+     * @return the row as it was before the update, or empty if no row had that id and version
+     */
+    Optional<Todo> updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values, Instant now);
+
+    /**
+     * Load-free delete: a single {@code DELETE FROM todos WHERE id = ?}. The removed row comes
+     * back from H2's OLD TABLE delta in the same round trip, so callers still learn its final state.
+     *
+     * @return the deleted row, or empty if no row had that id
+     */
+    Optional<Todo> deleteReturning(UUID id);
+}
@@ -0,0 +1,184 @@
+package com.demo.repository;
+
+import com.demo.dto.PatchTodoRequest;
+import com.demo.entity.Todo;
+import jakarta.persistence.Cache;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class TodoRepositoryImpl implements TodoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Tuple> findAllProjected(Specification<Todo> spec, Sort sort, List<String> attributes, int offset, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<Todo> root = cq.from(Todo.class);
+
+        Set<String> selected = new LinkedHashSet<>(attributes);
+        selected.add("id");
+        selected.add("updatedAt");
+        cq.multiselect(selected.stream()
+                .<Selection<?>>map(attribute -> root.get(attribute).alias(attribute))
+                .collect(Collectors.toList()));
+
+        Predicate predicate = spec.toPredicate(root, cq, cb);
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+        cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return em.createQuery(cq)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Specification<Todo> spec, Sort sort, int fetchSize, Consumer<Todo> action) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Todo> cq = cb.createQuery(Todo.class);
+        Root<Todo> root = cq.from(Todo.class);
+
+        Predicate predicate = spec.toPredicate(root, cq, cb);
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+        cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        try (Stream<Todo> rows = em.createQuery(cq)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                // A full scan would push the hot todos out of the second-level cache
+                .setHint(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS)
+                .getResultStream()) {
+            rows.forEach(todo -> {
+                em.detach(todo);
+                action.accept(todo);
+            });
+        }
+    }
+
+    @Override
+    @Transactional
+    public int updateAll(Specification<Todo> spec, PatchTodoRequest changes) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaUpdate<Todo> cu = cb.createCriteriaUpdate(Todo.class);
+        Root<Todo> root = cu.from(Todo.class);
+
+        if (changes.getTitle() != null) {
+            cu.set(root.<String>get("title"), changes.getTitle());
+        }
+        if (changes.getDescription() != null) {
+            cu.set(root.<String>get("description"), changes.getDescription());
+        }
+        if (changes.getCompleted() != null) {
+            cu.set(root.<Boolean>get("completed"), changes.getCompleted());
+        }
+        if (changes.getDueDate() != null) {
+            cu.set(root.<LocalDate>get("dueDate"), changes.getDueDate());
+        }
+        cu.set(root.<Instant>get("updatedAt"), Instant.now().truncatedTo(ChronoUnit.MICROS));
+        cu.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+
+        // The filter specifications only use root and cb, so no CriteriaQuery is needed here
+        Predicate predicate = spec.toPredicate(root, null, cb);
+        if (predicate != null) {
+            cu.where(predicate);
+        }
+
+        return em.createQuery(cu).executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public Optional<Todo> updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values, Instant now) {
+        StringBuilder set = new StringBuilder();
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            String column = TodoRows.column(value.getKey());
+            set.append(column).append(value.getValue() == null ? " = NULL, " : " = :" + column + ", ");
+        }
+        set.append("updated_at = :now, version = version + 1");
+
+        Query query = TodoRows.scalars(em.createNativeQuery("SELECT " + TodoRows.COLUMNS
+                + " FROM OLD TABLE (UPDATE todos SET " + set + " WHERE id = :id AND version = :version)"));
+        values.forEach((attribute, value) -> {
+            if (value != null) {
+                query.setParameter(TodoRows.column(attribute), value);
+            }
+        });
+        query.setParameter("now", now);
+        query.setParameter("id", id);
+        query.setParameter("version", expectedVersion);
+
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        evict(id);
+        return Optional.of(TodoRows.toTodo((Object[]) rows.get(0)));
+    }
+
+    @Override
+    @Transactional
+    public Optional<Todo> deleteReturning(UUID id) {
+        List<?> rows = TodoRows.scalars(em.createNativeQuery("SELECT " + TodoRows.COLUMNS
+                        + " FROM OLD TABLE (DELETE FROM todos WHERE id = :id)"))
+                .setParameter("id", id)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        evict(id);
+        return Optional.of(TodoRows.toTodo((Object[]) rows.get(0)));
+    }
+
+    /**
+     * Drops a row written by native SQL from the second-level cache, now and again once the
+     * transaction completes so a concurrent reader cannot re-cache the old state in between.
+     */
+    private void evict(UUID id) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        cache.evict(Todo.class, id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.evict(Todo.class, id);
+            }
+        });
+    }
+}
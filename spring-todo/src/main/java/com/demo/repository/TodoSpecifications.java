@@ -0,0 +1,52 @@
+package com.demo.repository;
+
+import com.demo.dto.TodoCursor;
+import com.demo.entity.Todo;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * List filters shared by findAll and the bulk operations so both always select the same rows.
+ */
+public final class TodoSpecifications {
+
+    private TodoSpecifications() {
+    }
+
+    public static Specification<Todo> filter(Boolean completed, String query) {
+        Specification<Todo> spec = Specification.where(null);
+
+        if (completed != null) {
+            spec = spec.and((root, criteriaQuery, cb) ->
+                    cb.equal(root.get("completed"), completed));
+        }
+
+        if (query != null && !query.trim().isEmpty()) {
+            spec = spec.and((root, criteriaQuery, cb) ->
+                    cb.like(cb.lower(root.get("title")), "%" + query.toLowerCase() + "%"));
+        }
+
+        return spec;
+    }
+
+    /**
+     * Keyset predicate for the (updatedAt, id) ordering: rows strictly after the cursor.
+     */
+    public static Specification<Todo> after(TodoCursor cursor, boolean ascending) {
+        return (root, criteriaQuery, cb) -> {
+            Path<Instant> updatedAt = root.get("updatedAt");
+            Path<UUID> id = root.get("id");
+            if (ascending) {
+                return cb.or(
+                        cb.greaterThan(updatedAt, cursor.getUpdatedAt()),
+                        cb.and(cb.equal(updatedAt, cursor.getUpdatedAt()), cb.greaterThan(id, cursor.getId())));
+            }
+            return cb.or(
+                    cb.lessThan(updatedAt, cursor.getUpdatedAt()),
+                    cb.and(cb.equal(updatedAt, cursor.getUpdatedAt()), cb.lessThan(id, cursor.getId())));
+        };
+    }
+}
@@ -0,0 +1,279 @@
+package com.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs TodoService's single-todo writes in transactions, as chosen with {@code todo.write.durability}:
+ * <ul>
+ *   <li>{@code sync}: every write is its own transaction and commit, on the caller's thread.</li>
+ *   <li>{@code group}: writes queue for one committer thread, which applies whatever is queued (up to
+ *       {@code todo.write.group.max-size}, waiting at most {@code todo.write.group.max-delay} for more)
+ *       in one transaction with one commit. Each caller returns once that commit is done.</li>
+ *   <li>{@code async}: grouped the same way, but each caller returns as soon as its write has been
+ *       applied and flushed, before the commit (write-behind). A read straight after the response
+ *       may not see the write yet, and a write lost in a failed commit is only logged.</li>
+ * </ul>
+ *
+ * <p>Each grouped write is flushed and the persistence context cleared after it, so a constraint
+ * violation surfaces at the write that caused it and the next write starts from the database
+ * state, as it would in its own transaction. When a write leaves the shared transaction
+ * rollback-only, or the commit fails, the whole group is rolled back and each write is rerun in a
+ * transaction of its own, so every caller still gets its own result or error. A write must
+ * therefore change nothing when it fails through its own code (the 404 and 412 paths don't), and
+ * side effects must wait for the commit (TodoChangedEvent listeners are transactional).
+ *
+ * <p>Only the jpa engine is grouped. The memory and offheap engines have no transactions, and their
+ * write-ahead log already lets concurrent writers share one fsync: their writes run as they are,
+ * without a JPA transaction and so without a JDBC connection, and TodoChangedEvent listeners run
+ * as soon as the event is published.
+ */
+@Component
+public class GroupCommitter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GroupCommitter.class);
+
+    public enum Durability { SYNC, GROUP, ASYNC }
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transaction;
+    private final boolean transactional;
+    private final Durability durability;
+    private final int maxGroupSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingWrite<?>> queue;
+
+    private final DistributionSummary groupSizes;
+    private final Counter rollbacks;
+
+    private volatile boolean running;
+    private Thread committer;
+
+    public GroupCommitter(PlatformTransactionManager transactionManager, MeterRegistry registry,
+                          @Value("${todo.store.engine:jpa}") String engine,
+                          @Value("${todo.write.durability:sync}") Durability durability,
+                          @Value("${todo.write.group.max-size:64}") int maxGroupSize,
+                          @Value("${todo.write.group.max-delay:1ms}") Duration maxDelay) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactional = "jpa".equals(engine);
+        if (durability != Durability.SYNC && !"jpa".equals(engine)) {
+            LOG.info("todo.write.durability={} applies to the jpa engine only; {} writes are not grouped",
+                    durability.name().toLowerCase(), engine);
+            durability = Durability.SYNC;
+        }
+        this.durability = durability;
+        this.maxGroupSize = maxGroupSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        // Bounded so a stalled commit pushes back on request threads instead of queueing without limit
+        this.queue = new LinkedBlockingQueue<>(maxGroupSize * 16);
+        groupSizes = DistributionSummary.builder("todo.write.group.size")
+                .description("Writes committed together in one transaction")
+                .register(registry);
+        rollbacks = registry.counter("todo.write.group.rollbacks");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (durability == Durability.SYNC) {
+            return;
+        }
+        running = true;
+        committer = Thread.ofPlatform().name("todo-group-commit").daemon().start(this::run);
+        LOG.info("Committing writes in groups of up to {} ({} durability, max delay {} us)",
+                maxGroupSize, durability.name().toLowerCase(), TimeUnit.NANOSECONDS.toMicros(maxDelayNanos));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (committer == null) {
+            return;
+        }
+        // No interrupt: it would close H2's file channel under a commit in progress
+        running = false;
+        committer.join();
+    }
+
+    /** Whether writes need a JPA transaction, which only the jpa engine has. */
+    public boolean isTransactional() {
+        return transactional;
+    }
+
+    /**
+     * Runs {@code write} in a transaction and returns its result or rethrows its exception; with
+     * {@code group} or {@code async} durability the transaction is shared with other concurrent writes.
+     * Engines other than jpa run it without a transaction.
+     */
+    public <T> T execute(Supplier<T> write) {
+        if (!transactional) {
+            return write.get();
+        }
+        if (!running) {
+            return transaction.execute(status -> write.get());
+        }
+        PendingWrite<T> pending = new PendingWrite<>(write);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a write", e);
+        }
+        return pending.await();
+    }
+
+    private void run() {
+        List<PendingWrite<?>> group = new ArrayList<>(maxGroupSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingWrite<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                collect(group);
+                commit(group);
+                group.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Whatever is left when the thread ends still gets an answer
+            queue.drainTo(group);
+            for (PendingWrite<?> write : group) {
+                runAlone(write);
+            }
+        }
+    }
+
+    // Takes what is already queued, then waits up to max-delay for more
+    private void collect(List<PendingWrite<?>> group) throws InterruptedException {
+        queue.drainTo(group, maxGroupSize - group.size());
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (group.size() < maxGroupSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingWrite<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+            queue.drainTo(group, maxGroupSize - group.size());
+        }
+    }
+
+    private void commit(List<PendingWrite<?>> group) {
+        groupSizes.record(group.size());
+        try {
+            transaction.executeWithoutResult(status -> {
+                for (PendingWrite<?> write : group) {
+                    write.apply(em);
+                    if (status.isRollbackOnly()) {
+                        throw new IllegalStateException("A grouped write left the transaction rollback-only");
+                    }
+                    if (durability == Durability.ASYNC) {
+                        write.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            rollbacks.increment();
+            LOG.debug("Group of {} writes rolled back, rerunning each alone: {}", group.size(), e.getMessage());
+            for (PendingWrite<?> write : group) {
+                runAlone(write);
+            }
+            return;
+        }
+        for (PendingWrite<?> write : group) {
+            write.release();
+        }
+    }
+
+    private void runAlone(PendingWrite<?> write) {
+        write.applyAlone(transaction);
+        if (!write.release() && write.error != null) {
+            // async: the caller was already answered from the rolled-back group
+            LOG.warn("Acknowledged write was lost when its group rolled back", write.error);
+        }
+    }
+
+    private static final class PendingWrite<T> {
+
+        private final Supplier<T> write;
+        private final CompletableFuture<T> outcome = new CompletableFuture<>();
+        private T result;
+        private Throwable error;
+
+        PendingWrite(Supplier<T> write) {
+            this.write = write;
+        }
+
+        // Inside the group transaction: flushed and detached as if it had a transaction of its own
+        void apply(EntityManager em) {
+            result = null;
+            error = null;
+            try {
+                result = write.get();
+                em.flush();
+            } catch (RuntimeException | Error e) {
+                error = e;
+            } finally {
+                em.clear();
+            }
+        }
+
+        void applyAlone(TransactionTemplate transaction) {
+            result = null;
+            error = null;
+            try {
+                result = transaction.execute(status -> write.get());
+            } catch (RuntimeException | Error e) {
+                error = e;
+            }
+        }
+
+        /** @return false if the caller had already been released */
+        boolean release() {
+            return error != null ? outcome.completeExceptionally(error) : outcome.complete(result);
+        }
+
+        T await() {
+            try {
+                return outcome.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.demo.service;
+
+import com.demo.event.TodoChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fan-out of committed todo changes to GET /api/todos/stream subscribers.
+ *
+ * <p>The commit listener only offers the change to one bounded queue, so a write never waits for
+ * subscribers. A dispatcher thread copies each change into every subscriber's own bounded queue,
+ * and each subscriber has a virtual thread writing its queue to the connection, so a slow client
+ * holds up only itself. When a subscriber's queue is full, its backlog is dropped and replaced by
+ * one {@code resync} event: the client has missed changes and must reload the list. Bulk writes,
+ * whose rows are not known, and an overflow of the dispatch queue resync every subscriber. An
+ * overflow only raises a flag; the dispatcher, the one thread that takes from the queue, drops
+ * the backlog and sends the resync, so committers never race each other clearing the queue.
+ */
+@Component
+public class TodoEventStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TodoEventStream.class);
+
+    // Changes accepted from commits but not yet fanned out
+    private static final int DISPATCH_CAPACITY = 4096;
+
+    /** Writes events to one client connection; calls block until the bytes are handed to it. */
+    public interface Sink {
+
+        void send(String name, Object data) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    private static final Change RESYNC = new Change("resync", Map.of());
+
+    private final int maxSubscribers;
+    private final int subscriberBuffer;
+    private final Duration heartbeat;
+
+    private final BlockingQueue<Change> dispatch = new ArrayBlockingQueue<>(DISPATCH_CAPACITY);
+    // Set when a change did not fit in dispatch; cleared by the dispatcher as it resyncs everyone
+    private final AtomicBoolean dispatchOverflowed = new AtomicBoolean();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Slots taken in subscribers, reserved before the add so concurrent connects cannot pass the limit
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final Counter resyncs;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public TodoEventStream(MeterRegistry registry,
+                           @Value("${todo.stream.max-subscribers:1000}") int maxSubscribers,
+                           @Value("${todo.stream.subscriber-buffer:256}") int subscriberBuffer,
+                           @Value("${todo.stream.heartbeat:15s}") Duration heartbeat) {
+        this.maxSubscribers = maxSubscribers;
+        this.subscriberBuffer = subscriberBuffer;
+        this.heartbeat = heartbeat;
+        resyncs = registry.counter("todo.stream.resyncs");
+        Gauge.builder("todo.stream.subscribers", subscribers, Set::size).register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = Thread.ofPlatform().name("todo-stream-dispatch").daemon().start(this::dispatch);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.cancel();
+        }
+    }
+
+    /**
+     * Starts streaming changes committed from now on to {@code sink}; the returned handle stops it.
+     * Fails with 503 when {@code todo.stream.max-subscribers} are already connected.
+     */
+    public Runnable subscribe(Sink sink) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many stream subscribers");
+        }
+        Subscriber subscriber = new Subscriber(sink, subscriberBuffer);
+        subscribers.add(subscriber);
+        subscriber.writer = Thread.ofVirtual().name("todo-stream-subscriber").start(subscriber::write);
+        return subscriber::cancel;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        Change change = switch (event.getType()) {
+            case CREATED -> new Change("created", event.getAfter());
+            case UPDATED -> new Change("updated", event.getAfter());
+            case DELETED -> new Change("deleted", Map.of("id", event.getId()));
+            case BULK -> RESYNC;
+        };
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (!dispatch.offer(change)) {
+            // The dispatcher itself fell behind: nobody can be told exactly what they missed
+            dispatchOverflowed.set(true);
+            // Wakes the dispatcher in case it emptied the queue since; when full, it is awake anyway
+            dispatch.offer(RESYNC);
+        }
+    }
+
+    private void dispatch() {
+        while (running) {
+            Change change;
+            try {
+                change = dispatch.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (dispatchOverflowed.getAndSet(false)) {
+                // Everything still queued is older than the reload the resync asks for
+                dispatch.clear();
+                change = RESYNC;
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    private final class Subscriber {
+
+        private final Sink sink;
+        private final BlockingQueue<Change> queue;
+        // Not synchronized, which would pin a virtual thread to its carrier while it waits
+        private final ReentrantLock resyncLock = new ReentrantLock();
+        private volatile boolean open = true;
+        private volatile Thread writer;
+
+        Subscriber(Sink sink, int capacity) {
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void offer(Change change) {
+            if (change == RESYNC) {
+                resync();
+            } else if (!queue.offer(change)) {
+                resync();
+            }
+        }
+
+        // Whatever is still queued is superseded by the reload the client does on resync
+        private void resync() {
+            resyncLock.lock();
+            try {
+                // Still unsent means the client has read nothing since: same resync, not a new one
+                if (queue.peek() != RESYNC) {
+                    resyncs.increment();
+                }
+                queue.clear();
+                queue.offer(RESYNC);
+            } finally {
+                resyncLock.unlock();
+            }
+        }
+
+        void write() {
+            boolean failed = false;
+            try {
+                while (open) {
+                    Change change = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (change == null) {
+                        // Also how a client that went away is noticed while nothing changes
+                        sink.heartbeat();
+                    } else {
+                        sink.send(change.name, change.data);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // cancelled
+            } catch (IOException | RuntimeException e) {
+                // The server already knows the connection is gone and ends the response itself
+                failed = true;
+                LOG.debug("Stream subscriber disconnected: {}", e.toString());
+            } finally {
+                remove();
+                if (!failed) {
+                    sink.close();
+                }
+            }
+        }
+
+        void cancel() {
+            open = false;
+            remove();
+            Thread thread = writer;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+
+        // Both the writer and cancel end a subscription; only the first frees its slot
+        private void remove() {
+            if (subscribers.remove(this)) {
+                subscriberCount.decrementAndGet();
+            }
+        }
+    }
+
+    private record Change(String name, Object data) {
+    }
+}
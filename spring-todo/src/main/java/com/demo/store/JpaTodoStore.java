@@ -0,0 +1,159 @@
+package com.demo.store;
+
+import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoCursor;
+import com.demo.entity.Todo;
+import com.demo.repository.TodoRepository;
+import com.demo.repository.TodoSpecifications;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * The H2/Hibernate engine: every call maps onto TodoRepository and its specifications.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.store.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaTodoStore implements TodoStore {
+
+    private final TodoRepository todoRepository;
+    private final int exportFetchSize;
+
+    public JpaTodoStore(TodoRepository todoRepository, @Value("${todo.export.fetch-size:500}") int exportFetchSize) {
+        this.todoRepository = todoRepository;
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    @Override
+    public Todo insert(Todo todo) {
+        return todoRepository.save(todo);
+    }
+
+    @Override
+    public void insertAll(List<Todo> todos) {
+        // Flushed as JDBC batches (hibernate.jdbc.batch_size)
+        todoRepository.saveAllAndFlush(todos);
+    }
+
+    @Override
+    public Optional<Todo> findById(UUID id) {
+        return todoRepository.findById(id);
+    }
+
+    @Override
+    public Optional<Long> findVersion(UUID id) {
+        return todoRepository.findVersionById(id);
+    }
+
+    @Override
+    public boolean exists(UUID id) {
+        return todoRepository.existsById(id);
+    }
+
+    @Override
+    public List<Todo> findAll(Boolean completed, String query, TodoCursor cursor, int page, int size, String sort) {
+        Specification<Todo> spec = TodoSpecifications.filter(completed, query);
+
+        // Parse sort parameter (default: updatedAt,desc), id breaks ties so the keyset is unique
+        Sort.Direction direction = isAscending(sort) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sortObj = listSort(completed, direction);
+
+        if (cursor != null) {
+            // Keyset seek: no OFFSET and no count query, each page is a bounded index range scan
+            spec = spec.and(TodoSpecifications.after(cursor, direction == Sort.Direction.ASC));
+            return todoRepository.findBy(spec, q -> q.sortBy(sortObj).limit(size).all());
+        }
+        return todoRepository.findAll(spec, PageRequest.of(page, size, sortObj)).getContent();
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(Boolean completed, String query, TodoCursor cursor, int page,
+                                                      int size, String sort, List<String> attributes) {
+        boolean ascending = isAscending(sort);
+        Specification<Todo> spec = TodoSpecifications.filter(completed, query);
+        if (cursor != null) {
+            spec = spec.and(TodoSpecifications.after(cursor, ascending));
+        }
+
+        Sort sortObj = listSort(completed, ascending ? Sort.Direction.ASC : Sort.Direction.DESC);
+        List<Tuple> tuples = todoRepository.findAllProjected(spec, sortObj, attributes,
+                cursor != null ? 0 : page * size, size);
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                row.put(element.getAlias(), tuple.get(element));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public void forEach(Boolean completed, String query, Consumer<Todo> action) {
+        // One cursor instead of a query per page
+        todoRepository.streamAll(TodoSpecifications.filter(completed, query),
+                listSort(completed, Sort.Direction.DESC), exportFetchSize, action);
+    }
+
+    @Override
+    public Todo update(Todo todo) {
+        // Flush so @PreUpdate and the version increment are visible in the response
+        return todoRepository.saveAndFlush(todo);
+    }
+
+    @Override
+    public Optional<Todo> updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values, Instant now) {
+        return todoRepository.updateIfVersion(id, expectedVersion, values, now);
+    }
+
+    @Override
+    public int updateAll(Boolean completed, String query, PatchTodoRequest changes) {
+        return todoRepository.updateAll(TodoSpecifications.filter(completed, query), changes);
+    }
+
+    @Override
+    public int deleteAll(Boolean completed, String query) {
+        return (int) todoRepository.delete(TodoSpecifications.filter(completed, query));
+    }
+
+    @Override
+    public Optional<Todo> deleteReturning(UUID id) {
+        return todoRepository.deleteReturning(id);
+    }
+
+    @Override
+    public List<Object[]> countByCompletedAndDueDate() {
+        return todoRepository.countByCompletedAndDueDate();
+    }
+
+    /**
+     * (updatedAt, id) in the given direction, led by completed when the list is filtered on it.
+     * The filter pins completed to one value, so the lead key leaves the row order unchanged,
+     * but H2 only reads the completed indexes in order (no sort step) when ORDER BY starts with
+     * their leading column. Each keyset direction has its own index: H2 2.3 reads an index
+     * backwards, but returns no rows when it does so under an equality on the leading column.
+     */
+    private static Sort listSort(Boolean completed, Sort.Direction direction) {
+        Sort keyset = Sort.by(direction, "updatedAt", "id");
+        return completed != null ? Sort.by("completed").and(keyset) : keyset;
+    }
+
+    private static boolean isAscending(String sort) {
+        return sort != null && sort.contains("updatedAt") && sort.contains("asc");
+    }
+}
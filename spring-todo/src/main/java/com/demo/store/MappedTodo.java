@@ -0,0 +1,98 @@
+package com.demo.store;
+
+import com.demo.entity.Todo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * A stored todo loaded from a {@link MappedSnapshot}. The fields held in the snapshot index are
+ * set up front; createdAt, title and description are decoded from the mapped data section on
+ * first access and kept from then on.
+ *
+ * <p>Like every instance the engine stores, it is never modified; writes replace it with a
+ * plain Todo. The buffer is only read with absolute gets, so concurrent readers can share it.
+ */
+final class MappedTodo extends Todo {
+
+    private final ByteBuffer data;
+    private final int offset;
+    private final int length;
+
+    private volatile Payload payload;
+
+    MappedTodo(ByteBuffer data, int entry) {
+        this.data = data;
+        this.offset = (int) data.getLong(entry + MappedSnapshot.RECORD_OFFSET);
+        this.length = data.getInt(entry + MappedSnapshot.RECORD_LENGTH);
+        setId(new UUID(data.getLong(entry + MappedSnapshot.ID_MSB), data.getLong(entry + MappedSnapshot.ID_LSB)));
+        setVersion(data.getLong(entry + MappedSnapshot.VERSION));
+        setUpdatedAt(Instant.ofEpochSecond(data.getLong(entry + MappedSnapshot.UPDATED_SECONDS),
+                data.getInt(entry + MappedSnapshot.UPDATED_NANOS)));
+        setCompleted(data.get(entry + MappedSnapshot.COMPLETED) != 0);
+        long dueDate = data.getLong(entry + MappedSnapshot.DUE_DATE);
+        setDueDate(dueDate == MappedSnapshot.NULL_DATE ? null : LocalDate.ofEpochDay(dueDate));
+    }
+
+    @Override
+    public String getTitle() {
+        return payload().title();
+    }
+
+    @Override
+    public String getDescription() {
+        return payload().description();
+    }
+
+    @Override
+    public Instant getCreatedAt() {
+        return payload().createdAt();
+    }
+
+    /** The encoded data record, copied as-is into the next snapshot without decoding it. */
+    ByteBuffer record() {
+        return data.slice(offset, length);
+    }
+
+    private Payload payload() {
+        Payload loaded = payload;
+        if (loaded == null) {
+            // Racing readers decode the same bytes; either result may be kept
+            loaded = decode();
+            payload = loaded;
+        }
+        return loaded;
+    }
+
+    private Payload decode() {
+        CRC32 checksum = new CRC32();
+        checksum.update(data.slice(offset + 4, length - 4));
+        if ((int) checksum.getValue() != data.getInt(offset)) {
+            throw new IllegalStateException("Corrupt todo snapshot record for " + getId());
+        }
+        int position = offset + 4;
+        Instant createdAt = Instant.ofEpochSecond(data.getLong(position), data.getInt(position + 8));
+        position += 12;
+        int titleLength = data.getInt(position);
+        String title = string(position + 4, titleLength);
+        position += 4 + Math.max(titleLength, 0);
+        String description = string(position + 4, data.getInt(position));
+        return new Payload(createdAt, title, description);
+    }
+
+    private String string(int position, int bytes) {
+        if (bytes < 0) {
+            return null;
+        }
+        byte[] value = new byte[bytes];
+        data.get(position, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private record Payload(Instant createdAt, String title, String description) {
+    }
+}
@@ -0,0 +1,746 @@
+package com.demo.store;
+
+import com.demo.dto.PatchTodoRequest;
+import com.demo.dto.TodoCursor;
+import com.demo.entity.TimeOrderedUuid;
+import com.demo.entity.Todo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Off-heap variant of the in-memory engine. Rows live packed ({@link PackedTodo}) in direct
+ * ByteBuffer slabs, found through an open-addressing id index ({@link UuidIndex}) and sorted
+ * arrays of slab addresses per {@code completed} partition. The heap holds primitive arrays
+ * only; Todo objects are created at the edges, for the rows a call returns, the log records it
+ * writes and the snapshot being written.
+ *
+ * <p>Writes append a new record and leave the old one as garbage. Once garbage outgrows the live
+ * data, the live records are copied into fresh slabs in (updatedAt, id) order. Reads share a
+ * read lock; writers, and that compaction, take the write lock.
+ *
+ * <p>Durability is the in-memory engine's: the same write-ahead log, snapshot format and
+ * {@code todo.store.memory.*} settings, so either engine can open the other's directory. Slabs
+ * count against {@code -XX:MaxDirectMemorySize}, not the heap.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.store.engine", havingValue = "offheap")
+public class OffHeapTodoStore implements TodoStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OffHeapTodoStore.class);
+
+    private static final String SNAPSHOT = "snapshot.bin";
+
+    private final MeterRegistry registry;
+    private final String directory;
+    private final boolean fsync;
+    private final Duration snapshotInterval;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held while a snapshot reads slab memory without the read lock; compaction skips a turn meanwhile
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private final UuidIndex index = new UuidIndex();
+    private SlabAllocator slabs = new SlabAllocator();
+    private Ordered all = new Ordered();
+    private Ordered open = new Ordered();
+    private Ordered completed = new Ordered();
+
+    private Path dir;
+    private WriteAheadLog wal;
+    private ScheduledExecutorService snapshots;
+    private long snapshotPosition;
+
+    public OffHeapTodoStore(MeterRegistry registry,
+                            @Value("${todo.store.memory.dir:./data/todo-store}") String directory,
+                            @Value("${todo.store.memory.fsync:true}") boolean fsync,
+                            @Value("${todo.store.memory.snapshot-interval:PT5M}") Duration snapshotInterval) {
+        this.registry = registry;
+        this.directory = directory;
+        this.fsync = fsync;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @PostConstruct
+    void open() {
+        long started = System.nanoTime();
+        try {
+            dir = Path.of(directory);
+            Files.createDirectories(dir);
+            long replayFrom = loadSnapshot();
+            wal = new WriteAheadLog(dir, fsync);
+            int replayed = wal.open(replayFrom, this::replay);
+            LOG.info("Off-heap todo store opened with {} todos ({} MiB in slabs) from {} ({} log records replayed) in {} ms",
+                    index.size(), slabs.reservedBytes() >> 20, dir.toAbsolutePath(), replayed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the todo store in " + directory, e);
+        }
+
+        gauge("reserved", SlabAllocator::reservedBytes);
+        gauge("used", SlabAllocator::usedBytes);
+        gauge("live", SlabAllocator::liveBytes);
+
+        snapshots = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "todo-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = snapshotInterval.toMillis();
+        snapshots.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (RuntimeException e) {
+                LOG.error("Todo store snapshot failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void close() {
+        snapshots.shutdown();
+        try {
+            snapshots.awaitTermination(30, TimeUnit.SECONDS);
+            snapshot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.error("Final todo store snapshot failed, the write-ahead log still covers every write", e);
+        }
+        try {
+            wal.close();
+        } catch (IOException e) {
+            LOG.error("Failed to close the todo write-ahead log", e);
+        }
+    }
+
+    @Override
+    public Todo insert(Todo todo) {
+        insertAll(List.of(todo));
+        return todo;
+    }
+
+    @Override
+    public void insertAll(List<Todo> todos) {
+        Instant now = now();
+        List<PackedTodo.Encoded> encoded = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            if (todo.getId() == null) {
+                todo.setId(TimeOrderedUuid.next());
+            }
+            todo.setCreatedAt(now);
+            todo.setUpdatedAt(now);
+            todo.setVersion(0L);
+            encoded.add(PackedTodo.Encoded.of(todo));
+        }
+
+        long position;
+        lock.writeLock().lock();
+        try {
+            for (Todo todo : todos) {
+                wal.append(TodoRecords.put(todo));
+            }
+            for (PackedTodo.Encoded row : encoded) {
+                store(row);
+            }
+            position = wal.position();
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        wal.sync(position);
+    }
+
+    @Override
+    public Optional<Todo> findById(UUID id) {
+        lock.readLock().lock();
+        try {
+            long address = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return address >= 0 ? Optional.of(read(address)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Long> findVersion(UUID id) {
+        lock.readLock().lock();
+        try {
+            long address = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return address >= 0 ? Optional.of(version(address)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean exists(UUID id) {
+        lock.readLock().lock();
+        try {
+            return index.get(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Todo> findAll(Boolean completed, String query, TodoCursor cursor, int page, int size, String sort) {
+        lock.readLock().lock();
+        try {
+            long[] hits = scan(completed, query, cursor, isAscending(sort), cursor != null ? 0 : page * size, size);
+            List<Todo> todos = new ArrayList<>(hits.length);
+            for (long address : hits) {
+                todos.add(read(address));
+            }
+            return todos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(Boolean completed, String query, TodoCursor cursor, int page,
+                                                      int size, String sort, List<String> attributes) {
+        Set<String> selected = new LinkedHashSet<>(attributes);
+        selected.add("id");
+        selected.add("updatedAt");
+
+        lock.readLock().lock();
+        try {
+            long[] hits = scan(completed, query, cursor, isAscending(sort), cursor != null ? 0 : page * size, size);
+            List<Map<String, Object>> result = new ArrayList<>(hits.length);
+            for (long address : hits) {
+                // Only the selected attributes are decoded
+                ByteBuffer slab = slabs.slab(address);
+                int offset = SlabAllocator.offset(address);
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (String attribute : selected) {
+                    row.put(attribute, PackedTodo.attribute(slab, offset, attribute));
+                }
+                result.add(row);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Todo update(Todo todo) {
+        Todo next = TodoAttributes.copy(todo);
+        long position;
+        lock.writeLock().lock();
+        try {
+            long address = index.get(todo.getId().getMostSignificantBits(), todo.getId().getLeastSignificantBits());
+            if (address < 0 || todo.getVersion() == null || version(address) != todo.getVersion()) {
+                throw new ObjectOptimisticLockingFailureException(Todo.class, todo.getId());
+            }
+            next.setCreatedAt(PackedTodo.createdAt(slabs.slab(address), SlabAllocator.offset(address)));
+            next.setUpdatedAt(now());
+            next.setVersion(todo.getVersion() + 1);
+            position = wal.append(TodoRecords.put(next));
+            store(PackedTodo.Encoded.of(next));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        wal.sync(position);
+        return next;
+    }
+
+    @Override
+    public Optional<Todo> updateIfVersion(UUID id, long expectedVersion, Map<String, Object> values, Instant now) {
+        Todo current;
+        long position;
+        lock.writeLock().lock();
+        try {
+            long address = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (address < 0 || version(address) != expectedVersion) {
+                return Optional.empty();
+            }
+            current = read(address);
+            Todo next = TodoAttributes.copy(current);
+            values.forEach((attribute, value) -> TodoAttributes.set(next, attribute, value));
+            next.setUpdatedAt(now);
+            next.setVersion(current.getVersion() + 1);
+            position = wal.append(TodoRecords.put(next));
+            store(PackedTodo.Encoded.of(next));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        wal.sync(position);
+        return Optional.of(current);
+    }
+
+    @Override
+    public int updateAll(Boolean completed, String query, PatchTodoRequest changes) {
+        Instant now = now();
+        int affected;
+        long position;
+        lock.writeLock().lock();
+        try {
+            long[] matching = scan(completed, query, null, true, 0, Integer.MAX_VALUE);
+            List<PackedTodo.Encoded> updated = new ArrayList<>(matching.length);
+            for (long address : matching) {
+                Todo next = read(address);
+                if (changes.getTitle() != null) {
+                    next.setTitle(changes.getTitle());
+                }
+                if (changes.getDescription() != null) {
+                    next.setDescription(changes.getDescription());
+                }
+                if (changes.getCompleted() != null) {
+                    next.setCompleted(changes.getCompleted());
+                }
+                if (changes.getDueDate() != null) {
+                    next.setDueDate(changes.getDueDate());
+                }
+                next.setUpdatedAt(now);
+                next.setVersion(next.getVersion() + 1);
+                wal.append(TodoRecords.put(next));
+                updated.add(PackedTodo.Encoded.of(next));
+            }
+            for (PackedTodo.Encoded row : updated) {
+                store(row);
+            }
+            affected = matching.length;
+            position = wal.position();
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        wal.sync(position);
+        return affected;
+    }
+
+    @Override
+    public int deleteAll(Boolean completed, String query) {
+        int affected;
+        long position;
+        lock.writeLock().lock();
+        try {
+            long[] matching = scan(completed, query, null, true, 0, Integer.MAX_VALUE);
+            List<UUID> ids = new ArrayList<>(matching.length);
+            for (long address : matching) {
+                UUID id = PackedTodo.id(slabs.slab(address), SlabAllocator.offset(address));
+                wal.append(TodoRecords.delete(id));
+                ids.add(id);
+            }
+            for (UUID id : ids) {
+                remove(id);
+            }
+            affected = matching.length;
+            position = wal.position();
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        wal.sync(position);
+        return affected;
+    }
+
+    @Override
+    public Optional<Todo> deleteReturning(UUID id) {
+        Todo current;
+        long position;
+        lock.writeLock().lock();
+        try {
+            long address = index.get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (address < 0) {
+                return Optional.empty();
+            }
+            current = read(address);
+            position = wal.append(TodoRecords.delete(id));
+            remove(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        wal.sync(position);
+        return Optional.of(current);
+    }
+
+    @Override
+    public List<Object[]> countByCompletedAndDueDate() {
+        // Keyed by epoch day, so the scan decodes no dates
+        Map<Long, Long> openCounts = new HashMap<>();
+        Map<Long, Long> completedCounts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < all.size; i++) {
+                long address = all.addresses[i];
+                if (!live(address)) {
+                    continue;
+                }
+                ByteBuffer slab = slabs.slab(address);
+                int offset = SlabAllocator.offset(address);
+                (PackedTodo.completed(slab, offset) ? completedCounts : openCounts)
+                        .merge(PackedTodo.dueEpochDay(slab, offset), 1L, Long::sum);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Object[]> result = new ArrayList<>(openCounts.size() + completedCounts.size());
+        openCounts.forEach((day, count) -> result.add(new Object[]{false, date(day), count}));
+        completedCounts.forEach((day, count) -> result.add(new Object[]{true, date(day), count}));
+        return result;
+    }
+
+    /**
+     * Writes every todo to a new snapshot file and drops the log segments it covers. Skipped when
+     * nothing was written since the last snapshot.
+     */
+    void snapshot() {
+        snapshotLock.lock();
+        try {
+            long replayFrom;
+            long[] addresses;
+            ByteBuffer[] view;
+            lock.writeLock().lock();
+            try {
+                if (wal.position() == snapshotPosition) {
+                    return;
+                }
+                snapshotPosition = wal.position();
+                replayFrom = wal.rotate();
+                addresses = all.liveAddresses();
+                view = slabs.slabs();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // Records are never overwritten before compaction, which waits for snapshotLock, so
+            // these addresses stay readable while writers go on. Rows are hydrated one at a time.
+            long started = System.nanoTime();
+            Path tmp = dir.resolve(SNAPSHOT + ".tmp");
+            MappedSnapshot.write(tmp, replayFrom, new AbstractList<>() {
+                @Override
+                public Todo get(int i) {
+                    return PackedTodo.read(SlabAllocator.slab(view, addresses[i]), SlabAllocator.offset(addresses[i]));
+                }
+
+                @Override
+                public int size() {
+                    return addresses.length;
+                }
+            });
+            Files.move(tmp, dir.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            wal.deleteBefore(replayFrom);
+            LOG.debug("Todo store snapshot with {} todos written in {} ms", addresses.length,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the todo store snapshot", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /** @return the first log segment not covered by the snapshot */
+    private long loadSnapshot() throws IOException {
+        Path file = dir.resolve(SNAPSHOT);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return MappedSnapshot.load(file, todo -> store(PackedTodo.Encoded.of(todo)));
+    }
+
+    private void replay(TodoRecords.Entry entry) {
+        if (entry.type() == TodoRecords.PUT) {
+            store(PackedTodo.Encoded.of(entry.todo()));
+        } else {
+            remove(entry.id());
+        }
+        compactIfNeeded();
+    }
+
+    /** Appends the row to the slabs and points the indexes at it, retiring any previous version. */
+    private void store(PackedTodo.Encoded row) {
+        long address = slabs.allocate(row.length());
+        PackedTodo.write(slabs.slab(address), SlabAllocator.offset(address), row);
+        UUID id = row.todo().getId();
+        long previous = index.put(id.getMostSignificantBits(), id.getLeastSignificantBits(), address);
+        all.add(address);
+        partition(Boolean.TRUE.equals(row.todo().getCompleted())).add(address);
+        if (previous >= 0) {
+            retire(previous);
+        }
+    }
+
+    private void remove(UUID id) {
+        long previous = index.remove(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (previous >= 0) {
+            retire(previous);
+        }
+    }
+
+    private void retire(long address) {
+        ByteBuffer slab = slabs.slab(address);
+        int offset = SlabAllocator.offset(address);
+        slabs.free(PackedTodo.length(slab, offset));
+        all.dead++;
+        partition(PackedTodo.completed(slab, offset)).dead++;
+    }
+
+    private void compactIfNeeded() {
+        long garbage = slabs.usedBytes() - slabs.liveBytes();
+        if (garbage > slabs.liveBytes() && garbage > 2L * SlabAllocator.SLAB_SIZE && snapshotLock.tryLock()) {
+            try {
+                compact();
+            } finally {
+                snapshotLock.unlock();
+            }
+            return;
+        }
+        all.pruneIfNeeded();
+        open.pruneIfNeeded();
+        completed.pruneIfNeeded();
+    }
+
+    /** Copies the live records, in (updatedAt, id) order, into fresh slabs; the old ones are recycled. */
+    private void compact() {
+        long started = System.nanoTime();
+        long before = slabs.usedBytes();
+        SlabAllocator next = slabs.successor();
+        Ordered nextAll = new Ordered();
+        Ordered nextOpen = new Ordered();
+        Ordered nextCompleted = new Ordered();
+        for (int i = 0; i < all.size; i++) {
+            long address = all.addresses[i];
+            if (!live(address)) {
+                continue;
+            }
+            ByteBuffer slab = slabs.slab(address);
+            int offset = SlabAllocator.offset(address);
+            int length = PackedTodo.length(slab, offset);
+            long moved = next.allocate(length);
+            next.slab(moved).put(SlabAllocator.offset(moved), slab, offset, length);
+            index.put(PackedTodo.idMsb(slab, offset), PackedTodo.idLsb(slab, offset), moved);
+            nextAll.append(moved);
+            (PackedTodo.completed(slab, offset) ? nextCompleted : nextOpen).append(moved);
+        }
+        slabs.recycle();
+        slabs = next;
+        all = nextAll;
+        open = nextOpen;
+        completed = nextCompleted;
+        LOG.debug("Compacted off-heap todo slabs from {} to {} MiB in {} ms", before >> 20, slabs.usedBytes() >> 20,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /** Live addresses in list order, skipping {@code skip} matches and returning at most {@code limit}. */
+    private long[] scan(Boolean completed, String query, TodoCursor cursor, boolean ascending, int skip, int limit) {
+        if (limit <= 0) {
+            return new long[0];
+        }
+        Ordered list = completed == null ? all : partition(completed);
+        int from;
+        if (cursor == null) {
+            from = ascending ? 0 : list.size - 1;
+        } else {
+            UUID id = cursor.getId();
+            Instant updatedAt = cursor.getUpdatedAt();
+            int after = list.search(updatedAt.getEpochSecond(), updatedAt.getNano(), id.getMostSignificantBits(),
+                    id.getLeastSignificantBits(), ascending);
+            from = ascending ? after : after - 1;
+        }
+        String needle = query == null || query.trim().isEmpty() ? null : query.toLowerCase();
+
+        long[] hits = new long[Math.min(limit, 256)];
+        int found = 0;
+        int step = ascending ? 1 : -1;
+        for (int i = from; i >= 0 && i < list.size; i += step) {
+            long address = list.addresses[i];
+            if (!live(address)) {
+                continue;
+            }
+            if (needle != null) {
+                String title = PackedTodo.title(slabs.slab(address), SlabAllocator.offset(address));
+                if (title == null || !title.toLowerCase().contains(needle)) {
+                    continue;
+                }
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            if (found == hits.length) {
+                hits = Arrays.copyOf(hits, hits.length * 2);
+            }
+            hits[found++] = address;
+            if (found == limit) {
+                break;
+            }
+        }
+        return Arrays.copyOf(hits, found);
+    }
+
+    /** False for superseded and deleted rows, which stay in the ordered lists until pruned. */
+    private boolean live(long address) {
+        ByteBuffer slab = slabs.slab(address);
+        int offset = SlabAllocator.offset(address);
+        return index.get(PackedTodo.idMsb(slab, offset), PackedTodo.idLsb(slab, offset)) == address;
+    }
+
+    private Todo read(long address) {
+        return PackedTodo.read(slabs.slab(address), SlabAllocator.offset(address));
+    }
+
+    private long version(long address) {
+        return PackedTodo.version(slabs.slab(address), SlabAllocator.offset(address));
+    }
+
+    private Ordered partition(boolean done) {
+        return done ? completed : open;
+    }
+
+    private void gauge(String kind, ToLongFunction<SlabAllocator> bytes) {
+        Gauge.builder("todo.store.offheap.bytes", this, store -> {
+                    store.lock.readLock().lock();
+                    try {
+                        return bytes.applyAsLong(store.slabs);
+                    } finally {
+                        store.lock.readLock().unlock();
+                    }
+                })
+                .tag("kind", kind)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private static LocalDate date(long epochDay) {
+        return epochDay == PackedTodo.NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static boolean isAscending(String sort) {
+        return sort != null && sort.contains("updatedAt") && sort.contains("asc");
+    }
+
+    // Matches the precision of the JPA engine's TIMESTAMP(6) columns, so cursors behave the same
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Slab addresses sorted by (updatedAt, id). Superseded and deleted rows stay in place (scans
+     * skip them) until enough accumulate to be worth pruning. New rows nearly always sort last,
+     * since updatedAt is the time of the write.
+     */
+    private final class Ordered {
+
+        long[] addresses = new long[1024];
+        int size;
+        int dead;
+
+        void add(long address) {
+            ByteBuffer slab = slabs.slab(address);
+            int offset = SlabAllocator.offset(address);
+            long seconds = PackedTodo.updatedSeconds(slab, offset);
+            int nanos = PackedTodo.updatedNanos(slab, offset);
+            long msb = PackedTodo.idMsb(slab, offset);
+            long lsb = PackedTodo.idLsb(slab, offset);
+
+            int position = size;
+            if (size > 0 && compare(addresses[size - 1], seconds, nanos, msb, lsb) > 0) {
+                position = search(seconds, nanos, msb, lsb, true);
+            }
+            grow();
+            System.arraycopy(addresses, position, addresses, position + 1, size - position);
+            addresses[position] = address;
+            size++;
+        }
+
+        /** Adds an address known to sort after every other. */
+        void append(long address) {
+            grow();
+            addresses[size++] = address;
+        }
+
+        /** @return the first position whose row sorts after the key, or at or after it when {@code !after} */
+        int search(long seconds, int nanos, long msb, long lsb, boolean after) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int order = compare(addresses[middle], seconds, nanos, msb, lsb);
+                if (order < 0 || (after && order == 0)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        long[] liveAddresses() {
+            long[] result = new long[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (live(addresses[i])) {
+                    result[count++] = addresses[i];
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        void pruneIfNeeded() {
+            if (dead < 1024 || dead < size / 2) {
+                return;
+            }
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (live(addresses[i])) {
+                    addresses[count++] = addresses[i];
+                }
+            }
+            Arrays.fill(addresses, count, size, 0L);
+            size = count;
+            dead = 0;
+        }
+
+        private int compare(long address, long seconds, int nanos, long msb, long lsb) {
+            return PackedTodo.compare(slabs.slab(address), SlabAllocator.offset(address), seconds, nanos, msb, lsb);
+        }
+
+        private void grow() {
+            if (size == addresses.length) {
+                addresses = Arrays.copyOf(addresses, size * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.demo.store;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Bump allocator over fixed-size direct ByteBuffer slabs. An address packs the slab number in
+ * the high 32 bits and the offset in the low 32 bits, so the engine's indexes are plain longs.
+ *
+ * <p>Space is never reused in place: freeing only updates the live byte count, and the engine
+ * reclaims garbage by copying live records into a {@link #successor()} and {@link #recycle()
+ * recycling} the old slabs. Because bytes at an address never change until then, a reader
+ * holding an address stays valid for as long as compaction is held off.
+ *
+ * <p>Not thread-safe; the engine calls it under its write lock.
+ */
+final class SlabAllocator {
+
+    static final int SLAB_SIZE = 1 << 22;
+
+    // Emptied slabs kept for reuse; beyond this they are left to the garbage collector
+    private static final int MAX_SPARE = 4;
+
+    private final ArrayDeque<ByteBuffer> spare;
+
+    private ByteBuffer[] slabs = new ByteBuffer[16];
+    private int count;
+    private int top = SLAB_SIZE;
+    private long used;
+    private long live;
+
+    SlabAllocator() {
+        this(new ArrayDeque<>());
+    }
+
+    private SlabAllocator(ArrayDeque<ByteBuffer> spare) {
+        this.spare = spare;
+    }
+
+    /** @return the address of {@code length} fresh bytes, see {@link #slab} and {@link #offset} */
+    long allocate(int length) {
+        if (length > SLAB_SIZE) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit in a slab");
+        }
+        if (top + length > SLAB_SIZE) {
+            if (count == slabs.length) {
+                slabs = Arrays.copyOf(slabs, count * 2);
+            }
+            ByteBuffer slab = spare.poll();
+            slabs[count++] = slab != null ? slab : ByteBuffer.allocateDirect(SLAB_SIZE);
+            used += SLAB_SIZE - top;
+            top = 0;
+        }
+        long address = ((long) (count - 1) << 32) | top;
+        top += length;
+        used += length;
+        live += length;
+        return address;
+    }
+
+    void free(int length) {
+        live -= length;
+    }
+
+    ByteBuffer slab(long address) {
+        return slabs[(int) (address >>> 32)];
+    }
+
+    /** Resolves an address against {@link #slabs()} taken after it was allocated. */
+    static ByteBuffer slab(ByteBuffer[] slabs, long address) {
+        return slabs[(int) (address >>> 32)];
+    }
+
+    static int offset(long address) {
+        return (int) address;
+    }
+
+    /** The slabs as of now; enough to read every address handed out so far. */
+    ByteBuffer[] slabs() {
+        return Arrays.copyOf(slabs, count);
+    }
+
+    /** An empty allocator drawing on the same spare slabs, to compact into. */
+    SlabAllocator successor() {
+        return new SlabAllocator(spare);
+    }
+
+    /** Hands every slab back for reuse; addresses from this allocator are invalid afterwards. */
+    void recycle() {
+        for (int i = 0; i < count; i++) {
+            if (spare.size() < MAX_SPARE) {
+                spare.push(slabs[i].clear());
+            }
+            slabs[i] = null;
+        }
+        count = 0;
+        top = SLAB_SIZE;
+        used = 0;
+        live = 0;
+    }
+
+    /** Bytes taken by records, live or dead, including slab tails too short for the next record. */
+    long usedBytes() {
+        return used;
+    }
+
+    long liveBytes() {
+        return live;
+    }
+
+    /** Direct memory held, spare slabs included. */
+    long reservedBytes() {
+        return (long) (count + spare.size()) * SLAB_SIZE;
+    }
+}
@@ -0,0 +1,52 @@
+package com.demo.store;
+
+import com.demo.entity.Todo;
+
+import java.time.LocalDate;
+
+/**
+ * Attribute-name access to Todo fields for the engines that keep rows outside Hibernate. Names
+ * are the entity attribute names used by projections and {@link TodoStore#updateIfVersion}.
+ */
+final class TodoAttributes {
+
+    private TodoAttributes() {
+    }
+
+    static Object get(Todo todo, String attribute) {
+        return switch (attribute) {
+            case "id" -> todo.getId();
+            case "title" -> todo.getTitle();
+            case "description" -> todo.getDescription();
+            case "completed" -> todo.getCompleted();
+            case "dueDate" -> todo.getDueDate();
+            case "createdAt" -> todo.getCreatedAt();
+            case "updatedAt" -> todo.getUpdatedAt();
+            case "version" -> todo.getVersion();
+            default -> throw new IllegalArgumentException("Unknown attribute: " + attribute);
+        };
+    }
+
+    static void set(Todo todo, String attribute, Object value) {
+        switch (attribute) {
+            case "title" -> todo.setTitle((String) value);
+            case "description" -> todo.setDescription((String) value);
+            case "completed" -> todo.setCompleted((Boolean) value);
+            case "dueDate" -> todo.setDueDate((LocalDate) value);
+            default -> throw new IllegalArgumentException("Not a writable attribute: " + attribute);
+        }
+    }
+
+    static Todo copy(Todo todo) {
+        Todo copy = new Todo();
+        copy.setId(todo.getId());
+        copy.setTitle(todo.getTitle());
+        copy.setDescription(todo.getDescription());
+        copy.setCompleted(todo.getCompleted());
+        copy.setDueDate(todo.getDueDate());
+        copy.setCreatedAt(todo.getCreatedAt());
+        copy.setUpdatedAt(todo.getUpdatedAt());
+        copy.setVersion(todo.getVersion());
+        return copy;
+    }
+}
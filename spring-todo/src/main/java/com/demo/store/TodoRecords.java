@@ -0,0 +1,146 @@
+package com.demo.store;
+
+import com.demo.entity.Todo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Binary record format of the write-ahead log.
+ *
+ * <p>Each record is framed as {@code [int length][int crc32][payload]}. The payload starts with
+ * the record type and the todo id; a PUT then carries the full row, a DELETE nothing else.
+ * A frame that is cut short or fails its checksum marks the end of the readable data.
+ */
+final class TodoRecords {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private TodoRecords() {
+    }
+
+    /** A decoded record; {@code todo} is null for deletes, {@code size} counts the frame bytes. */
+    record Entry(byte type, UUID id, Todo todo, int size) {
+    }
+
+    static byte[] put(Todo todo) {
+        return frame(PUT, todo.getId(), todo);
+    }
+
+    static byte[] delete(UUID id) {
+        return frame(DELETE, id, null);
+    }
+
+    /**
+     * @return the next record, or null at a clean end of stream
+     * @throws IOException if the stream ends inside a frame or a checksum does not match
+     */
+    static Entry read(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        int crc = in.readInt();
+        if (length <= 0 || length > (1 << 24)) {
+            throw new IOException("Corrupt record length " + length);
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        if ((int) checksum.getValue() != crc) {
+            throw new IOException("Record checksum mismatch");
+        }
+
+        DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = record.readByte();
+        UUID id = new UUID(record.readLong(), record.readLong());
+        if (type == DELETE) {
+            return new Entry(type, id, null, length + 8);
+        }
+        if (type != PUT) {
+            throw new IOException("Unknown record type " + type);
+        }
+        Todo todo = new Todo();
+        todo.setId(id);
+        todo.setVersion(record.readLong());
+        todo.setCreatedAt(Instant.ofEpochSecond(record.readLong(), record.readInt()));
+        todo.setUpdatedAt(Instant.ofEpochSecond(record.readLong(), record.readInt()));
+        todo.setCompleted(record.readBoolean());
+        long dueDate = record.readLong();
+        todo.setDueDate(dueDate == NULL_DATE ? null : LocalDate.ofEpochDay(dueDate));
+        todo.setTitle(readString(record));
+        todo.setDescription(readString(record));
+        return new Entry(type, id, todo, length + 8);
+    }
+
+    private static byte[] frame(byte type, UUID id, Todo todo) {
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+            DataOutputStream record = new DataOutputStream(payload);
+            record.writeByte(type);
+            record.writeLong(id.getMostSignificantBits());
+            record.writeLong(id.getLeastSignificantBits());
+            if (todo != null) {
+                record.writeLong(todo.getVersion());
+                record.writeLong(todo.getCreatedAt().getEpochSecond());
+                record.writeInt(todo.getCreatedAt().getNano());
+                record.writeLong(todo.getUpdatedAt().getEpochSecond());
+                record.writeInt(todo.getUpdatedAt().getNano());
+                record.writeBoolean(Boolean.TRUE.equals(todo.getCompleted()));
+                record.writeLong(todo.getDueDate() != null ? todo.getDueDate().toEpochDay() : NULL_DATE);
+                writeString(record, todo.getTitle());
+                writeString(record, todo.getDescription());
+            }
+            record.flush();
+
+            byte[] body = payload.toByteArray();
+            CRC32 checksum = new CRC32();
+            checksum.update(body);
+            ByteArrayOutputStream framed = new ByteArrayOutputStream(body.length + 8);
+            DataOutputStream out = new DataOutputStream(framed);
+            out.writeInt(body.length);
+            out.writeInt((int) checksum.getValue());
+            out.write(body);
+            out.flush();
+            return framed.toByteArray();
+        } catch (IOException e) {
+            // In-memory streams do not throw
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
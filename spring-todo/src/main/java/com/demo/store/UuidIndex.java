@@ -0,0 +1,117 @@
+package com.demo.store;
+
+/**
+ * Open-addressing hash map from UUID to slab address, stored as three parallel long arrays
+ * (linear probing, backward-shift deletion, no tombstones). A million ids cost about 48 MB at
+ * the maximum load factor instead of a node, a UUID and a boxed value per entry.
+ *
+ * <p>Not thread-safe; the engine guards it with its read/write lock.
+ */
+final class UuidIndex {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] msbs;
+    private long[] lsbs;
+    // Address + 1, so the zeroed array means empty
+    private long[] addresses;
+    private int mask;
+    private int size;
+
+    UuidIndex() {
+        allocate(1 << 10);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** @return the address, or -1 when the id is absent */
+    long get(long msb, long lsb) {
+        for (int slot = slot(msb, lsb); addresses[slot] != 0; slot = (slot + 1) & mask) {
+            if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                return addresses[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /** @return the address replaced, or -1 when the id is new */
+    long put(long msb, long lsb, long address) {
+        int slot = slot(msb, lsb);
+        for (; addresses[slot] != 0; slot = (slot + 1) & mask) {
+            if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                long previous = addresses[slot] - 1;
+                addresses[slot] = address + 1;
+                return previous;
+            }
+        }
+        msbs[slot] = msb;
+        lsbs[slot] = lsb;
+        addresses[slot] = address + 1;
+        if (++size > (mask + 1) * LOAD_FACTOR) {
+            resize();
+        }
+        return -1;
+    }
+
+    /** @return the address removed, or -1 when the id was absent */
+    long remove(long msb, long lsb) {
+        int slot = slot(msb, lsb);
+        for (; addresses[slot] != 0; slot = (slot + 1) & mask) {
+            if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                long previous = addresses[slot] - 1;
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+        }
+        return -1;
+    }
+
+    /** Closes the gap at {@code hole} by moving later entries of the probe run back into it. */
+    private void shiftBack(int hole) {
+        for (int next = (hole + 1) & mask; addresses[next] != 0; next = (next + 1) & mask) {
+            int home = slot(msbs[next], lsbs[next]);
+            // The entry may move only if its home slot is not cyclically within (hole, next]
+            boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+            if (!stays) {
+                msbs[hole] = msbs[next];
+                lsbs[hole] = lsbs[next];
+                addresses[hole] = addresses[next];
+                hole = next;
+            }
+        }
+        addresses[hole] = 0;
+    }
+
+    private int slot(long msb, long lsb) {
+        long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize() {
+        long[] oldMsbs = msbs;
+        long[] oldLsbs = lsbs;
+        long[] oldAddresses = addresses;
+        allocate(oldAddresses.length * 2);
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (oldAddresses[i] != 0) {
+                int slot = slot(oldMsbs[i], oldLsbs[i]);
+                while (addresses[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                msbs[slot] = oldMsbs[i];
+                lsbs[slot] = oldLsbs[i];
+                addresses[slot] = oldAddresses[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        msbs = new long[capacity];
+        lsbs = new long[capacity];
+        addresses = new long[capacity];
+        mask = capacity - 1;
+    }
+}
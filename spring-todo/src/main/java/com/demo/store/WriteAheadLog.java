@@ -0,0 +1,203 @@
+package com.demo.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of {@link TodoRecords}, split into numbered segment files ({@code wal-<n>.log}).
+ * A snapshot records the first segment it does not cover, and older segments are deleted once
+ * the snapshot is on disk.
+ *
+ * <p>{@link #append} and {@link #rotate} are called by one writer at a time (the store's write
+ * lock). {@link #sync} may be called concurrently: one force covers every record appended
+ * before it, so writers waiting on the same flush share it.
+ */
+final class WriteAheadLog implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    private final Path dir;
+    private final boolean fsync;
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private FileChannel channel;
+    private long segment;
+    // Bytes appended since open, and how many of them are known to be on disk
+    private volatile long appended;
+    private volatile long durable;
+
+    WriteAheadLog(Path dir, boolean fsync) {
+        this.dir = dir;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Replays every segment from {@code fromSegment} on, in order, and starts a new segment for
+     * appends. A torn record at the end of the newest segment (a crash mid-append) is cut off;
+     * damage anywhere else fails the open.
+     *
+     * @return the number of records replayed
+     */
+    int open(long fromSegment, Consumer<TodoRecords.Entry> replay) throws IOException {
+        List<Long> segments = segments();
+        int replayed = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            long number = segments.get(i);
+            if (number < fromSegment) {
+                // Already covered by the snapshot; left behind by a crash after the snapshot was written
+                Files.delete(path(number));
+                continue;
+            }
+            replayed += replay(path(number), i == segments.size() - 1, replay);
+            if (Files.size(path(number)) == 0) {
+                Files.delete(path(number));
+            }
+        }
+        segment = segments.isEmpty() ? fromSegment : Math.max(fromSegment, segments.get(segments.size() - 1) + 1);
+        channel = openSegment(segment);
+        return replayed;
+    }
+
+    /** @return the log position after the record, to pass to {@link #sync} */
+    long append(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to append to the todo write-ahead log", e);
+        }
+        appended += record.length;
+        return appended;
+    }
+
+    /** Blocks until everything up to {@code position} is on disk; a no-op when fsync is off. */
+    void sync(long position) {
+        if (!fsync || durable >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durable >= position) {
+                return;
+            }
+            long target = appended;
+            channel.force(false);
+            durable = target;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to sync the todo write-ahead log", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /** Total bytes appended since open. */
+    long position() {
+        return appended;
+    }
+
+    /**
+     * Closes the current segment and starts the next one.
+     *
+     * @return the new segment number: every record appended from now on is in it or later ones
+     */
+    long rotate() throws IOException {
+        syncLock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+            durable = appended;
+            segment++;
+            channel = openSegment(segment);
+            return segment;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    void deleteBefore(long number) throws IOException {
+        for (long existing : segments()) {
+            if (existing < number) {
+                Files.deleteIfExists(path(existing));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncLock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private int replay(Path file, boolean newest, Consumer<TodoRecords.Entry> replay) throws IOException {
+        int replayed = 0;
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                TodoRecords.Entry entry;
+                try {
+                    entry = TodoRecords.read(in);
+                } catch (IOException e) {
+                    if (!newest) {
+                        throw new IOException("Corrupt write-ahead log segment " + file + " at byte " + valid, e);
+                    }
+                    break;
+                }
+                if (entry == null) {
+                    break;
+                }
+                replay.accept(entry);
+                replayed++;
+                valid += entry.size();
+            }
+        }
+        long size = Files.size(file);
+        if (valid < size) {
+            LOG.warn("Truncating torn tail of {}: {} bytes after offset {}", file.getFileName(), size - valid, valid);
+            try (FileChannel torn = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                torn.truncate(valid);
+                torn.force(true);
+            }
+        }
+        return replayed;
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(path(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private Path path(long number) {
+        return dir.resolve(String.format("wal-%016d.log", number));
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith("wal-") && name.endsWith(".log"))
+                    .map(name -> Long.parseLong(name.substring(4, name.length() - 4)))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
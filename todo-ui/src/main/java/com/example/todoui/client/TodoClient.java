@@ -1,11 +1,13 @@
 package com.example.todoui.client;
 
 import com.example.todoui.model.Todo;
+import io.smallrye.mutiny.Multi;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
-
-import java.util.List;
+import org.jboss.resteasy.reactive.client.SseEvent;
 
 @Path("/api/todos")
 @RegisterRestClient(configKey = "com.example.todoui.client.TodoClient")
@@ -13,12 +15,26 @@ import java.util.List;
 @Consumes(MediaType.APPLICATION_JSON)
 public interface TodoClient {
 
+    // A Response, so a 304 for a matching If-None-Match comes back with its ETag instead of a body.
+    // CBOR first: cheaper to decode than JSON; a backend without it answers JSON
+    @GET
+    @Produces({CborProvider.MEDIA_TYPE, MediaType.APPLICATION_JSON})
+    Response getAllTodos(@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch);
+
+    // The backend's JSON as is, so fields this UI doesn't model survive the relay
+    @GET
+    @Path("/changes")
+    String getChanges(@QueryParam("since") String since);
+
     @GET
-    List<Todo> getAllTodos();
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    Multi<SseEvent<String>> streamChanges();
 
     @GET
     @Path("/{id}")
-    Todo getTodoById(@PathParam("id") Long id);
+    @Produces({CborProvider.MEDIA_TYPE, MediaType.APPLICATION_JSON})
+    Response getTodoById(@PathParam("id") Long id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch);
 
     @POST
     Todo createTodo(Todo todo);
@@ -1,5 +1,6 @@
 package com.example.todoui.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class Todo {
@@ -16,6 +17,11 @@ public class Todo {
     @JsonProperty("completed")
     private Boolean completed;
 
+    // The backend's version, which its ETags carry; never sent back on writes
+    @JsonProperty("version")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
+
     public Todo() {
     }
 
@@ -57,4 +63,12 @@ public class Todo {
     public void setCompleted(Boolean completed) {
         this.completed = completed;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
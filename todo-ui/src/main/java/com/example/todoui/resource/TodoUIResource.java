@@ -2,10 +2,16 @@ package com.example.todoui.resource;
 
 import com.example.todoui.client.TodoClient;
 import com.example.todoui.model.Todo;
+import io.smallrye.mutiny.Multi;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.GenericType;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
 import java.util.List;
@@ -19,15 +25,51 @@ public class TodoUIResource {
     @RestClient
     TodoClient todoClient;
 
+    /**
+     * Relays the list with the backend's validators. The page sends back the ETag it got, and an
+     * unchanged list comes back as a bodiless 304 from both hops.
+     */
     @GET
-    public List<Todo> getAllTodos() {
-        return todoClient.getAllTodos();
+    public Response getAllTodos(@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        try (Response response = todoClient.getAllTodos(ifNoneMatch)) {
+            return relay(response, new GenericType<List<Todo>>() { });
+        }
+    }
+
+    /**
+     * Relays the backend's delta sync. A 410 (expired token) is passed on so the page reloads the list.
+     */
+    @GET
+    @Path("/changes")
+    public Response getChanges(@QueryParam("since") String since) {
+        try {
+            return Response.ok(todoClient.getChanges(since)).build();
+        } catch (WebApplicationException e) {
+            return Response.status(e.getResponse().getStatus()).build();
+        }
+    }
+
+    /**
+     * Relays the backend's change stream. Event names and JSON payloads pass through unchanged;
+     * when the backend connection ends, so does this one, and the browser reconnects and reloads.
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public Multi<OutboundSseEvent> streamChanges(@Context Sse sse) {
+        return todoClient.streamChanges()
+                .map(event -> event.name() == null
+                        ? sse.newEventBuilder().comment(event.comment() != null ? event.comment() : "heartbeat").build()
+                        // The payload is already JSON text, send it as is
+                        : sse.newEventBuilder().name(event.name()).data(event.data()).build());
     }
 
     @GET
     @Path("/{id}")
-    public Todo getTodoById(@PathParam("id") Long id) {
-        return todoClient.getTodoById(id);
+    public Response getTodoById(@PathParam("id") Long id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        try (Response response = todoClient.getTodoById(id, ifNoneMatch)) {
+            return relay(response, new GenericType<Todo>() { });
+        }
     }
 
     @POST
@@ -48,4 +90,18 @@ public class TodoUIResource {
         todoClient.deleteTodo(id);
         return Response.status(Response.Status.NO_CONTENT).build();
     }
+
+    // 200 or 304, with the backend's ETag and Cache-Control
+    private static <T> Response relay(Response response, GenericType<T> type) {
+        Response.ResponseBuilder builder = response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()
+                ? Response.notModified()
+                : Response.ok(response.readEntity(type));
+        for (String header : List.of(HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL)) {
+            String value = response.getHeaderString(header);
+            if (value != null) {
+                builder.header(header, value);
+            }
+        }
+        return builder.build();
+    }
 }
@@ -1,6 +1,14 @@
 // State
 let editingTodoId = null;
 let backendType = 'quarkus';
+// Todos on screen by id, kept current by the change stream between full loads
+let todos = new Map();
+let changeStream = null;
+let streamInterrupted = false;
+// Position in the backend's change log at the last load, for GET /api/todos/changes
+let syncToken = null;
+// ETag of the list on screen; an unchanged list then reloads as a bodiless 304
+let listEtag = null;
 
 // API Base URL
 const API_BASE = '/api';
@@ -20,10 +28,11 @@ const refreshBtn = document.getElementById('refresh-btn');
 document.addEventListener('DOMContentLoaded', () => {
     loadBackendInfo();
     loadTodos();
+    subscribeToChanges();
 
     todoForm.addEventListener('submit', handleSubmit);
     cancelBtn.addEventListener('click', cancelEdit);
-    refreshBtn.addEventListener('click', loadTodos);
+    refreshBtn.addEventListener('click', syncTodos);
 });
 
 // Load backend information
@@ -73,14 +82,27 @@ async function loadTodos() {
         showLoading(true);
         hideError();
 
-        const response = await fetch(`${API_BASE}/todos`);
+        // Taken before the list, so changes racing the load are fetched again, not missed
+        const tokenResponse = await fetch(`${API_BASE}/todos/changes`);
+        syncToken = tokenResponse.ok ? (await tokenResponse.json()).token : null;
 
+        // no-store: the validator is sent by hand, so a 304 reaches this code and skips the render
+        const response = await fetch(`${API_BASE}/todos`, {
+            cache: 'no-store',
+            headers: listEtag ? { 'If-None-Match': listEtag } : {}
+        });
+
+        if (response.status === 304) {
+            return;
+        }
         if (!response.ok) {
             throw new Error(`HTTP error! status: ${response.status}`);
         }
 
-        const todos = await response.json();
-        renderTodos(todos);
+        const loaded = await response.json();
+        listEtag = response.headers.get('ETag');
+        todos = new Map(loaded.map(todo => [todo.id, todo]));
+        renderTodos(loaded);
     } catch (error) {
         showError(`Failed to load todos: ${error.message}`);
     } finally {
@@ -88,6 +110,84 @@ async function loadTodos() {
     }
 }
 
+// Fetch only what changed since the last load; falls back to a full load without a usable token
+async function syncTodos() {
+    if (!syncToken) {
+        return loadTodos();
+    }
+    try {
+        hideError();
+        let more = true;
+        while (more) {
+            const response = await fetch(`${API_BASE}/todos/changes?since=${encodeURIComponent(syncToken)}`);
+            // Expired: too old, from before a bulk write or a backend restart
+            if (response.status === 410) {
+                return loadTodos();
+            }
+            if (!response.ok) {
+                throw new Error(`HTTP error! status: ${response.status}`);
+            }
+            const changes = await response.json();
+            changes.changed.forEach(applyTodo);
+            changes.deleted.forEach(id => todos.delete(id));
+            syncToken = changes.token;
+            more = changes.more;
+        }
+        renderTodos([...todos.values()]);
+    } catch (error) {
+        showError(`Failed to refresh todos: ${error.message}`);
+    }
+}
+
+// Apply created/updated/deleted events from the backend instead of reloading the list.
+// Nothing is replayed after a disconnect: catch up from the change log then.
+// resync means events were dropped, possibly by a bulk write: reload the list.
+function subscribeToChanges() {
+    if (!window.EventSource) {
+        return;
+    }
+    changeStream = new EventSource(`${API_BASE}/todos/stream`);
+
+    changeStream.addEventListener('created', e => upsertTodo(JSON.parse(e.data)));
+    changeStream.addEventListener('updated', e => upsertTodo(JSON.parse(e.data)));
+    changeStream.addEventListener('deleted', e => {
+        todos.delete(JSON.parse(e.data).id);
+        renderTodos([...todos.values()]);
+    });
+    changeStream.addEventListener('resync', () => loadTodos());
+
+    changeStream.onopen = () => {
+        if (streamInterrupted) {
+            streamInterrupted = false;
+            syncTodos();
+        }
+    };
+    // EventSource reconnects by itself
+    changeStream.onerror = () => {
+        streamInterrupted = true;
+    };
+}
+
+function isStreaming() {
+    return changeStream !== null && changeStream.readyState === EventSource.OPEN;
+}
+
+function upsertTodo(todo) {
+    applyTodo(todo);
+    renderTodos([...todos.values()]);
+}
+
+function applyTodo(todo) {
+    const current = todos.get(todo.id);
+    // A full load that raced the event may already hold a newer version
+    if (current && current.version != null && todo.version != null && current.version > todo.version) {
+        return;
+    }
+    // Same order as GET /api/todos: the todo written last comes first
+    todos.delete(todo.id);
+    todos = new Map([[todo.id, todo], ...todos]);
+}
+
 // Render todos
 function renderTodos(todos) {
     todoList.innerHTML = '';
@@ -156,7 +256,10 @@ async function handleSubmit(e) {
         }
 
         resetForm();
-        loadTodos();
+        // The change stream delivers the write; reload only without it
+        if (!isStreaming()) {
+            loadTodos();
+        }
     } catch (error) {
         showError(`Failed to save todo: ${error.message}`);
     }
@@ -199,13 +302,18 @@ async function updateTodo(id, todo) {
 // Edit todo
 async function editTodo(id) {
     try {
-        const response = await fetch(`${API_BASE}/todos/${id}`);
+        // The todo on screen is revalidated against its version, the backend's ETag
+        const current = todos.get(id);
+        const response = await fetch(`${API_BASE}/todos/${id}`, {
+            cache: 'no-store',
+            headers: current && current.version != null ? { 'If-None-Match': `"${current.version}"` } : {}
+        });
 
-        if (!response.ok) {
+        if (!response.ok && response.status !== 304) {
             throw new Error(`HTTP error! status: ${response.status}`);
         }
 
-        const todo = await response.json();
+        const todo = response.status === 304 ? current : await response.json();
 
         editingTodoId = id;
         document.getElementById('todo-id').value = id;
@@ -239,7 +347,9 @@ async function deleteTodo(id) {
             throw new Error(`HTTP error! status: ${response.status}`);
         }
 
-        loadTodos();
+        if (!isStreaming()) {
+            loadTodos();
+        }
     } catch (error) {
         showError(`Failed to delete todo: ${error.message}`);
     }